@@ -0,0 +1,108 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.EcOmsApplication;
+import com.example.EcOMS.dto.CreateOrderRequest;
+import com.example.EcOMS.dto.OrderItemRequest;
+import com.example.EcOMS.entity.Order;
+import com.example.EcOMS.entity.Product;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.AopTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixtures shared by the benchmarks. Services come from an application context started once
+ * per benchmark JVM, unwrapped from their proxies so the mapping benchmarks measure the
+ * method rather than the metrics aspect. Benchmarks that write to the database start their
+ * own context on a private in-memory H2 instance.
+ */
+final class BenchmarkData {
+
+    private static ConfigurableApplicationContext application;
+
+    private BenchmarkData() {
+    }
+
+    static OrderService orderService() {
+        return service(OrderService.class);
+    }
+
+    static ProductService productService() {
+        return service(ProductService.class);
+    }
+
+    /** Starts the application without a web server on an empty in-memory database. */
+    static ConfigurableApplicationContext startApplication() {
+        return new SpringApplicationBuilder(EcOmsApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                        // Keeps the pollers from running during a measurement
+                        "ecoms.product-feed.poll-interval=PT1H",
+                        "ecoms.sales-stats.flush-interval=PT1H",
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    private static synchronized <T> T service(Class<T> type) {
+        if (application == null) {
+            // Closed by Spring's shutdown hook when the benchmark JVM exits
+            application = startApplication();
+        }
+        return AopTestUtils.getUltimateTargetObject(application.getBean(type));
+    }
+
+    static Map<Long, Product> products(int count) {
+        Map<Long, Product> products = new HashMap<>();
+        for (long id = 1; id <= count; id++) {
+            products.put(id, product(id));
+        }
+        return products;
+    }
+
+    static Product product(long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Benchmark product " + id);
+        product.setPrice(new BigDecimal("19.99").add(BigDecimal.valueOf(id, 2)));
+        product.setStock(1_000);
+        product.setCategory("Category " + (id % 10));
+        product.setIsActive(true);
+        product.setCreatedAt(LocalDateTime.of(2025, 1, 1, 12, 0));
+        return product;
+    }
+
+    static CreateOrderRequest request(int itemCount) {
+        List<OrderItemRequest> items = new ArrayList<>(itemCount);
+        for (long id = 1; id <= itemCount; id++) {
+            items.add(new OrderItemRequest(id, (int) (id % 5) + 1));
+        }
+        return new CreateOrderRequest("bench@example.com", "Bench Buyer", "+998901234567",
+                "Tashkent, Amir Temur street 1", items);
+    }
+
+    static Order order(int itemCount) {
+        Order order = orderService().buildOrder(request(itemCount), products(itemCount));
+        order.setId(42L);
+        order.setOrderDate(LocalDateTime.of(2025, 1, 1, 12, 0));
+        return order;
+    }
+
+    static Page<Product> productPage(int size) {
+        List<Product> content = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            content.add(product(id));
+        }
+        return new PageImpl<>(content, PageRequest.of(0, size), 10_000);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.CreateOrderRequest;
+import com.example.EcOMS.dto.OrderDTO;
+import com.example.EcOMS.entity.Order;
+import com.example.EcOMS.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-order work on the create and read paths: entity-to-DTO mapping, the BigDecimal
+ * subtotal/total math in {@link OrderService#buildOrder} and the duplicate product check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderMappingBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int items;
+
+    private OrderService orderService;
+    private Order order;
+    private CreateOrderRequest request;
+    private Map<Long, Product> products;
+
+    @Setup
+    public void setUp() {
+        orderService = BenchmarkData.orderService();
+        order = BenchmarkData.order(items);
+        request = BenchmarkData.request(items);
+        products = BenchmarkData.products(items);
+    }
+
+    @Benchmark
+    public OrderDTO convertToDTO() {
+        return orderService.convertToDTO(order);
+    }
+
+    @Benchmark
+    public Order buildOrder() {
+        return orderService.buildOrder(request, products);
+    }
+
+    @Benchmark
+    public void validateNoDuplicateProducts(Blackhole blackhole) {
+        orderService.validateNoDuplicateProducts(request.getItems());
+        blackhole.consume(request);
+    }
+}
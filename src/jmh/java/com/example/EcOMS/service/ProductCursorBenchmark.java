@@ -0,0 +1,92 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.PageResponse;
+import com.example.EcOMS.dto.ProductDTO;
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads page 1 and page {@code page} of the product listing sorted by price, once with an
+ * OFFSET and once from a cursor. The cursor page should cost the same at every depth while
+ * the OFFSET page grows with the rows it skips.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductCursorBenchmark {
+
+    private static final int PRODUCTS = 200_000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1", "1000", "9000"})
+    private int page;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private String cursor;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkData.startApplication();
+        productService = context.getBean(ProductService.class);
+
+        List<Object[]> rows = new ArrayList<>(PRODUCTS);
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.of(2025, 1, 1, 12, 0));
+        for (int i = 0; i < PRODUCTS; i++) {
+            // Four products per price, so the id tie-breaker is part of the seek
+            rows.add(new Object[]{"Cursor product " + i, BigDecimal.valueOf(i % 50_000, 2), createdAt});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "INSERT INTO products (name, price, stock, category, is_active, created_at, version) " +
+                        "VALUES (?, ?, 100, 'Benchmark', TRUE, ?, 0)", rows);
+
+        // The cursor a client holds after reading the pages before this one
+        if (page > 1) {
+            Sort sort = ProductCursor.sort("price", Sort.Direction.ASC);
+            List<Product> previous = context.getBean(ProductRepository.class)
+                    .findAll(PageRequest.of(page - 2, PAGE_SIZE, sort)).getContent();
+            cursor = ProductCursor.encode(previous.get(previous.size() - 1), "price", Sort.Direction.ASC);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PageResponse<ProductDTO> offsetPage() {
+        return productService.getAllProducts(page - 1, PAGE_SIZE, "price", "asc");
+    }
+
+    @Benchmark
+    public PageResponse<ProductDTO> cursorPage() {
+        return productService.getProductsAfter(cursor, PAGE_SIZE, "price", "asc", false);
+    }
+}
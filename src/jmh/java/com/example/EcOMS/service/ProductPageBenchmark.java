@@ -0,0 +1,45 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.PageResponse;
+import com.example.EcOMS.dto.ProductDTO;
+import com.example.EcOMS.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductPageBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ProductService productService;
+    private Page<Product> page;
+
+    @Setup
+    public void setUp() {
+        productService = BenchmarkData.productService();
+        page = BenchmarkData.productPage(pageSize);
+    }
+
+    @Benchmark
+    public PageResponse<ProductDTO> convertToPageResponse() {
+        return productService.convertToPageResponse(page);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.OrderDTO;
+import com.example.EcOMS.dto.PageResponse;
+import com.example.EcOMS.dto.ProductDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CPU cost of encoding a product page and a list of orders per wire format, with and
+ * without gzip as Tomcat applies it. The encoded size of each combination is reported as
+ * the {@code bytes} secondary result, so a run reports both time and bytes on the wire per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireEncodingBenchmark {
+
+    public enum Encoding {
+        JSON, CBOR, SMILE
+    }
+
+    @Param({"20", "100"})
+    private int size;
+
+    @Param
+    private Encoding encoding;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private ObjectMapper objectMapper;
+    private PageResponse<ProductDTO> productPage;
+    private List<OrderDTO> orders;
+
+    /**
+     * Size of the last body encoded. Assigned rather than summed, so the counter reads as
+     * bytes per page however many operations an iteration ran.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+        public long bytes;
+    }
+
+    @Setup
+    public void setUp() {
+        objectMapper = switch (encoding) {
+            case JSON -> Jackson2ObjectMapperBuilder.json().build();
+            case CBOR -> Jackson2ObjectMapperBuilder.cbor().build();
+            case SMILE -> Jackson2ObjectMapperBuilder.smile().build();
+        };
+        productPage = BenchmarkData.productService().convertToPageResponse(BenchmarkData.productPage(size));
+        OrderService orderService = BenchmarkData.orderService();
+        orders = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            OrderDTO order = orderService.convertToDTO(BenchmarkData.order(3));
+            order.setId(1_000L + i);
+            orders.add(order);
+        }
+    }
+
+    @Benchmark
+    public byte[] encodeProductPage(EncodedSize encoded) throws IOException {
+        byte[] body = encode(productPage);
+        encoded.bytes = body.length;
+        return body;
+    }
+
+    @Benchmark
+    public byte[] encodeOrders(EncodedSize encoded) throws IOException {
+        byte[] body = encode(orders);
+        encoded.bytes = body.length;
+        return body;
+    }
+
+    private byte[] encode(Object body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes) : bytes) {
+            objectMapper.writeValue(out, body);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.EcOMS.config;
+
+import com.example.EcOMS.entity.Order;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.WebUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Remembers which customers, orders and products were written in the last
+ * {@code ecoms.datasource.read-your-writes-window}, so reads of them go to the primary
+ * instead of a replica that may not have caught up yet. The window restarts when the
+ * writing transaction commits. Does nothing unless a replica is configured.
+ * <p>
+ * The keys are only known to the node that did the write. So that a client's next request
+ * can land on any node, a write made while serving an HTTP request also sets the
+ * {@value #COOKIE} cookie to the commit time, and every read of a request carrying a
+ * cookie younger than the window goes to the primary. Node clocks must agree to well
+ * within the window. Clients that drop cookies only get read-your-writes from the node
+ * that served the write, so they need sticky sessions.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    public static final String COOKIE = "ecoms-last-write";
+
+    private final boolean enabled;
+    private final Duration window;
+    private final Cache<Object, Boolean> recentWrites;
+
+    public ReadYourWritesTracker(@Value("${ecoms.datasource.replica.jdbc-url:}") String replicaUrl,
+                                 @Value("${ecoms.datasource.read-your-writes-window:PT5S}") Duration window,
+                                 @Value("${ecoms.datasource.read-your-writes-maximum-size:100000}") long maximumSize) {
+        this.enabled = !replicaUrl.isBlank() && !window.isZero();
+        this.window = window;
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    public void recordOrders(Collection<Order> orders) {
+        if (!enabled) {
+            return;
+        }
+        List<Object> keys = new ArrayList<>(orders.size() * 2);
+        for (Order order : orders) {
+            keys.add(new OrderKey(order.getId()));
+            keys.add(new CustomerKey(order.getCustomerEmail()));
+        }
+        record(keys);
+    }
+
+    public void recordOrderIds(Collection<Long> ids) {
+        if (enabled) {
+            record(ids.stream().<Object>map(OrderKey::new).toList());
+        }
+    }
+
+    public void recordProductIds(Collection<Long> ids) {
+        if (enabled) {
+            record(ids.stream().<Object>map(ProductKey::new).toList());
+        }
+    }
+
+    public void usePrimaryForCustomer(String email) {
+        usePrimaryIfWritten(new CustomerKey(email));
+    }
+
+    public void usePrimaryForOrder(Long id) {
+        usePrimaryIfWritten(new OrderKey(id));
+    }
+
+    public void usePrimaryForProduct(Long id) {
+        usePrimaryIfWritten(new ProductKey(id));
+    }
+
+    private void usePrimaryIfWritten(Object key) {
+        if (enabled && (recentWrites.getIfPresent(key) != null || clientWroteRecently())) {
+            ReplicationRoutingDataSource.pinToPrimary();
+        }
+    }
+
+    private void record(List<Object> keys) {
+        keys.forEach(key -> recentWrites.put(key, Boolean.TRUE));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            stampClient();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                keys.forEach(key -> recentWrites.put(key, Boolean.TRUE));
+                stampClient();
+            }
+        });
+    }
+
+    private boolean clientWroteRecently() {
+        HttpServletRequest request = currentRequest() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest()
+                : null;
+        Cookie cookie = request == null ? null : WebUtils.getCookie(request, COOKIE);
+        if (cookie == null) {
+            return false;
+        }
+        try {
+            return System.currentTimeMillis() - Long.parseLong(cookie.getValue()) < window.toMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Hands the commit time to the client, so the window follows it to other nodes. Writes
+     * made outside a request, or after the response was committed, are only pinned here.
+     */
+    private void stampClient() {
+        HttpServletResponse response = currentRequest() instanceof ServletRequestAttributes attributes
+                ? attributes.getResponse()
+                : null;
+        if (response == null || response.isCommitted()) {
+            return;
+        }
+        ResponseCookie cookie = ResponseCookie.from(COOKIE, String.valueOf(System.currentTimeMillis()))
+                .path("/")
+                .maxAge(window.plusSeconds(1))
+                .httpOnly(true)
+                .sameSite("Lax")
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    private static RequestAttributes currentRequest() {
+        return RequestContextHolder.getRequestAttributes();
+    }
+
+    private record CustomerKey(String email) {
+    }
+
+    private record OrderKey(Long id) {
+    }
+
+    private record ProductKey(Long id) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.EcOMS.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends connections of read-only transactions to the replica and everything else to the
+ * primary. Must sit behind a {@code LazyConnectionDataSourceProxy} so the route is chosen
+ * at the first statement, once the transaction's read-only flag is known; a read-only
+ * transaction can still be {@linkplain #pinToPrimary() pinned} to the primary up to that
+ * point.
+ */
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    enum Route {
+        PRIMARY, REPLICA
+    }
+
+    public ReplicationRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Makes the current transaction read the primary even if it is read-only. Has no effect
+     * outside a transaction, which reads the primary anyway, or once the transaction has
+     * already obtained its connection.
+     */
+    public static void pinToPrimary() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || PINNED.get() != null) {
+            return;
+        }
+        PINNED.set(Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                PINNED.remove();
+            }
+        });
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && PINNED.get() == null
+                ? Route.REPLICA
+                : Route.PRIMARY;
+    }
+}
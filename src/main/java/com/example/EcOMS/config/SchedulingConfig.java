@@ -0,0 +1,26 @@
+package com.example.EcOMS.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The scheduler's pool is sized with {@code spring.task.scheduling.pool.size}, so a slow
+ * job does not hold up the others.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    /**
+     * Sends the change feed to its subscribers, a thread per subscriber with events queued,
+     * so a client that stops reading only blocks its own thread.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService productFeedExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
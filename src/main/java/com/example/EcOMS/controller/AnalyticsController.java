@@ -0,0 +1,39 @@
+package com.example.EcOMS.controller;
+
+import com.example.EcOMS.dto.SalesStatisticsDTO;
+import com.example.EcOMS.enums.OrderStatus;
+import com.example.EcOMS.metrics.SqlBudget;
+import com.example.EcOMS.service.SalesStatisticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final SalesStatisticsService salesStatisticsService;
+
+    // Served by the replica when one is configured, so orders it has not replayed yet are missing
+    @GetMapping("/sales")
+    @SqlBudget(1)
+    public ResponseEntity<List<SalesStatisticsDTO>> getSalesStatistics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Set<OrderStatus> status,
+            @RequestParam(required = false) String category) {
+        return ResponseEntity.ok(salesStatisticsService.getStatistics(from, to, status, category));
+    }
+
+    @PostMapping("/sales/rebuild")
+    public ResponseEntity<Void> rebuildSalesStatistics() {
+        salesStatisticsService.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+}
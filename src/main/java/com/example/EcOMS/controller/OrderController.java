@@ -1,15 +1,30 @@
 package com.example.EcOMS.controller;
 
+import com.example.EcOMS.dto.BatchOrderResponse;
+import com.example.EcOMS.dto.BulkStatusUpdateRequest;
+import com.example.EcOMS.dto.BulkStatusUpdateResponse;
 import com.example.EcOMS.dto.CreateOrderRequest;
 import com.example.EcOMS.dto.OrderDTO;
+import com.example.EcOMS.dto.OrderIntakeStatus;
+import com.example.EcOMS.dto.PageResponse;
 import com.example.EcOMS.dto.UpdateOrderStatusRequest;
+import com.example.EcOMS.metrics.SqlBudget;
+import com.example.EcOMS.service.IdempotencyService;
+import com.example.EcOMS.service.OrderBatchService;
+import com.example.EcOMS.service.OrderIntakeService;
 import com.example.EcOMS.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -18,24 +33,85 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderBatchService orderBatchService;
+    private final OrderIntakeService orderIntakeService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public ResponseEntity<List<OrderDTO>> getAllOrders() {
-        return ResponseEntity.ok(orderService.getAllOrders());
+    @SqlBudget(3)
+    public ResponseEntity<PageResponse<OrderDTO>> getAllOrders(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(orderService.getAllOrders(page, size));
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportOrders() {
+        StreamingResponseBody body = outputStream -> orderService.exportOrders(order -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(order));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
     }
 
     @GetMapping("/{id}")
+    @SqlBudget(2)
     public ResponseEntity<OrderDTO> getOrderById(@PathVariable Long id) {
         return ResponseEntity.ok(orderService.getOrderById(id));
     }
 
     @PostMapping
-    public ResponseEntity<OrderDTO> createOrder(@Valid @RequestBody CreateOrderRequest request) {
+    @SqlBudget(8)
+    public ResponseEntity<OrderDTO> createOrder(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody CreateOrderRequest request) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(orderService.createOrder(request));
+        }
+        IdempotencyService.Outcome outcome = idempotencyService.createOrder(idempotencyKey, request);
         return ResponseEntity.status(HttpStatus.CREATED)
-                .body(orderService.createOrder(request));
+                .header("Idempotent-Replayed", String.valueOf(outcome.replayed()))
+                .body(outcome.order());
+    }
+
+    @PostMapping("/batch")
+    @SqlBudget(6)
+    public ResponseEntity<BatchOrderResponse> createOrders(@RequestBody List<CreateOrderRequest> requests) {
+        return ResponseEntity.ok(orderBatchService.createOrders(requests));
+    }
+
+    @PostMapping("/async")
+    @SqlBudget(0)
+    public ResponseEntity<OrderIntakeStatus> submitOrder(@Valid @RequestBody CreateOrderRequest request) {
+        OrderIntakeStatus status = orderIntakeService.submit(request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/orders/intake/" + status.getHandle()))
+                .body(status);
+    }
+
+    @GetMapping("/intake/{handle}")
+    @SqlBudget(0)
+    public ResponseEntity<OrderIntakeStatus> getIntakeStatus(@PathVariable String handle) {
+        return ResponseEntity.ok(orderIntakeService.getStatus(handle));
+    }
+
+    @PutMapping("/status")
+    @SqlBudget(10)
+    public ResponseEntity<BulkStatusUpdateResponse> updateOrderStatuses(
+            @Valid @RequestBody BulkStatusUpdateRequest request) {
+        return ResponseEntity.ok(orderBatchService.updateStatuses(request));
     }
 
     @PutMapping("/{id}/status")
+    @SqlBudget(7)
     public ResponseEntity<OrderDTO> updateOrderStatus(
             @PathVariable Long id,
             @Valid @RequestBody UpdateOrderStatusRequest request) {
@@ -43,13 +119,18 @@ public class OrderController {
     }
 
     @DeleteMapping("/{id}")
+    @SqlBudget(8)
     public ResponseEntity<Void> deleteOrder(@PathVariable Long id) {
         orderService.deleteOrder(id);
         return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/customer/{email}")
-    public ResponseEntity<List<OrderDTO>> getOrdersByCustomerEmail(@PathVariable String email) {
-        return ResponseEntity.ok(orderService.getOrdersByCustomerEmail(email));
+    @SqlBudget(6)
+    public ResponseEntity<PageResponse<OrderDTO>> getOrdersByCustomerEmail(
+            @PathVariable String email,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(orderService.getOrdersByCustomerEmail(email, page, size));
     }
 }
\ No newline at end of file
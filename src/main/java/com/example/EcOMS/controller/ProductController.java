@@ -4,14 +4,36 @@ package com.example.EcOMS.controller;
 
 import com.example.EcOMS.dto.CreateProductRequest;
 import com.example.EcOMS.dto.PageResponse;
+import com.example.EcOMS.dto.ProductChangeEvent;
 import com.example.EcOMS.dto.ProductDTO;
+import com.example.EcOMS.dto.ProductImportResponse;
+import com.example.EcOMS.dto.ProductVersion;
 import com.example.EcOMS.dto.UpdateProductRequest;
+import com.example.EcOMS.enums.ProductImportFormat;
+import com.example.EcOMS.metrics.SqlBudget;
+import com.example.EcOMS.service.ProductChangeFeed;
+import com.example.EcOMS.service.ProductImportService;
 import com.example.EcOMS.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
 
 @RestController
 @RequestMapping("/api/products")
@@ -19,22 +41,42 @@ import org.springframework.web.bind.annotation.*;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductChangeFeed productChangeFeed;
+
+    @Value("${ecoms.product-feed.emitter-timeout:PT30M}")
+    private Duration feedTimeout;
 
     @GetMapping
+    @SqlBudget(2)
     public ResponseEntity<PageResponse<ProductDTO>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
-        return ResponseEntity.ok(productService.getAllProducts(page, size, sortBy, sortDir));
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        if (after != null) {
+            return pageResponse(productService.getProductsAfter(after, size, sortBy, sortDir, withTotal));
+        }
+        return pageResponse(productService.getAllProducts(page, size, sortBy, sortDir));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+    @SqlBudget(2)
+    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id, WebRequest webRequest) {
+        // A revalidating client is answered from the version alone, without loading the row
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            ProductVersion current = productService.getProductVersion(id);
+            if (webRequest.checkNotModified(eTag(current.getVersion()), epochMillis(current.getLastModified()))) {
+                return null;
+            }
+        }
+        return productResponse(productService.getProductById(id));
     }
 
     @PostMapping
+    @SqlBudget(2)
     public ResponseEntity<ProductDTO> createProduct(
             @Valid @RequestBody CreateProductRequest request) {
         return ResponseEntity.status(HttpStatus.CREATED)
@@ -42,27 +84,151 @@ public class ProductController {
     }
 
     @PutMapping("/{id}")
+    @SqlBudget(3)
     public ResponseEntity<ProductDTO> updateProduct(
             @PathVariable Long id,
             @Valid @RequestBody UpdateProductRequest request) {
-        return ResponseEntity.ok(productService.updateProduct(id, request));
+        return productResponse(productService.updateProduct(id, request));
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @SqlBudget(SqlBudget.UNLIMITED)
+    public ResponseEntity<ProductImportResponse> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            HttpServletRequest request) throws IOException {
+        ProductImportFormat format = contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? ProductImportFormat.CSV
+                : ProductImportFormat.NDJSON;
+        return ResponseEntity.ok(productImportService.importProducts(request.getInputStream(), format));
     }
 
     @DeleteMapping("/{id}")
+    @SqlBudget(3)
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         productService.deleteProduct(id);
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Server-sent events of product and stock changes, replacing polling of the listing. A
+     * reconnecting client resumes with Last-Event-ID (or {@code after}) and first receives
+     * the latest state of every product changed since; the replay pages through the outbox,
+     * hence no statement budget.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @SqlBudget(SqlBudget.UNLIMITED)
+    public SseEmitter productChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                     @RequestParam(required = false) Long after) {
+        SseEmitter emitter = new SseEmitter(feedTimeout.toMillis());
+        ProductChangeFeed.Subscription subscription = productChangeFeed.subscribe(
+                lastEventId != null ? lastEventId : after, new SseListener(emitter));
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        return emitter;
+    }
+
     @GetMapping("/search")
+    @SqlBudget(2)
     public ResponseEntity<PageResponse<ProductDTO>> searchProducts(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String category,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
-        return ResponseEntity.ok(productService.searchProducts(
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        if (after != null) {
+            return pageResponse(productService.searchProductsAfter(
+                    name, category, after, size, sortBy, sortDir, withTotal));
+        }
+        return pageResponse(productService.searchProducts(
                 name, category, page, size, sortBy, sortDir));
     }
+
+    /**
+     * Spring answers 304 itself when the ETag or Last-Modified set here matches the request's
+     * conditional headers, skipping serialization of the body.
+     */
+    private static ResponseEntity<ProductDTO> productResponse(ProductDTO product) {
+        LocalDateTime lastModified = product.getUpdatedAt() != null ? product.getUpdatedAt() : product.getCreatedAt();
+        return ResponseEntity.ok()
+                .eTag(eTag(product.getVersion()))
+                .lastModified(epochMillis(lastModified))
+                .body(product);
+    }
+
+    /**
+     * Pages get a weak ETag derived from the ids and versions they list along with the
+     * paging fields, so any change to a listed product or to the page boundaries changes it.
+     */
+    private static ResponseEntity<PageResponse<ProductDTO>> pageResponse(PageResponse<ProductDTO> page) {
+        StringBuilder state = new StringBuilder()
+                .append(page.getPageNumber()).append('|')
+                .append(page.getPageSize()).append('|')
+                .append(page.getTotalElements()).append('|')
+                .append(page.isLast()).append('|')
+                .append(page.getNextCursor());
+        for (ProductDTO product : page.getContent()) {
+            state.append('|').append(product.getId()).append(':').append(product.getVersion());
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(state.toString().getBytes(StandardCharsets.UTF_8));
+            return ResponseEntity.ok()
+                    .eTag("W/\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"")
+                    .body(page);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record SseListener(SseEmitter emitter) implements ProductChangeFeed.Listener {
+
+        @Override
+        public void onChange(ProductChangeEvent change, long resumeFrom) throws IOException {
+            // The event id is what the client sends back as Last-Event-ID on reconnect
+            send(SseEmitter.event()
+                    .id(String.valueOf(resumeFrom))
+                    .name("product-change")
+                    .data(change, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void onReset(long resumeFrom) throws IOException {
+            send(SseEmitter.event().id(String.valueOf(resumeFrom)).name("reset").data("reload"));
+        }
+
+        @Override
+        public void onHeartbeat() throws IOException {
+            send(SseEmitter.event().comment("heartbeat"));
+        }
+
+        @Override
+        public void onDropped() {
+            // The client reconnects with its Last-Event-ID and is replayed from there
+            emitter.complete();
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            try {
+                emitter.send(event);
+            } catch (IllegalStateException e) {
+                // Completed or timed out between the relay's check and this send
+                throw new IOException(e);
+            }
+        }
+    }
+
+    /**
+     * Weak, since the JSON, CBOR and Smile bodies of one version differ byte for byte while
+     * all of them are equally current.
+     */
+    private static String eTag(long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time == null ? -1 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
 }
\ No newline at end of file
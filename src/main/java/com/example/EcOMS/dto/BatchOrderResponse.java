@@ -0,0 +1,18 @@
+package com.example.EcOMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOrderResponse {
+    private int succeeded;
+    private int failed;
+    private List<BatchOrderResult> results;
+}
@@ -0,0 +1,17 @@
+package com.example.EcOMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOrderResult {
+    private int index;
+    private boolean success;
+    private OrderDTO order;
+    private String error;
+}
@@ -0,0 +1,31 @@
+package com.example.EcOMS.dto;
+
+import com.example.EcOMS.enums.OrderStatus;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves a set of PENDING orders to {@code status}. The set is either the listed
+ * {@code ids} or every PENDING order matching the filter fields.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateRequest {
+
+    @NotNull(message = "Status is required")
+    private OrderStatus status;
+
+    private List<Long> ids;
+
+    private String customerEmail;
+
+    private LocalDateTime createdBefore;
+}
@@ -0,0 +1,22 @@
+package com.example.EcOMS.dto;
+
+import com.example.EcOMS.enums.OrderIntakeState;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderIntakeStatus {
+    private String handle;
+    private OrderIntakeState state;
+    private Long orderId;
+    private String error;
+    private LocalDateTime queuedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,27 @@
+package com.example.EcOMS.dto;
+
+import com.example.EcOMS.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * One order line as selected by the projection queries: the order columns repeated for
+ * each of its items. Item columns are null for an order without items.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderRow {
+    private Long orderId;
+    private String customerEmail;
+    private String customerName;
+    private String customerPhone;
+    private BigDecimal totalAmount;
+    private OrderStatus orderStatus;
+    private Long productId;
+    private String productName;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+    private BigDecimal totalPrice;
+}
@@ -0,0 +1,11 @@
+package com.example.EcOMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ProductCategory {
+    private Long productId;
+    private String category;
+}
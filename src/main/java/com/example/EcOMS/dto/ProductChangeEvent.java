@@ -0,0 +1,25 @@
+package com.example.EcOMS.dto;
+
+import com.example.EcOMS.enums.ProductChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangeEvent {
+    private Long id;
+    private Long productId;
+    private ProductChangeType changeType;
+    private String name;
+    private BigDecimal price;
+    private Integer stock;
+    private Boolean isActive;
+    private LocalDateTime changedAt;
+}
@@ -21,4 +21,6 @@ public class ProductDTO {
     private String category;
     private Boolean isActive;
     private LocalDateTime createdAt;
+    private Long version;
+    private LocalDateTime updatedAt;
 }
\ No newline at end of file
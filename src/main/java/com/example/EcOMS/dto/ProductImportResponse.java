@@ -0,0 +1,21 @@
+package com.example.EcOMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResponse {
+    private long rows;
+    private long inserted;
+    private long updated;
+    private long failed;
+    private List<ProductImportError> errors;
+    private boolean errorsTruncated;
+}
@@ -0,0 +1,27 @@
+package com.example.EcOMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * One product of a bulk import. Rows with an {@code id} update that product, rows without
+ * one create a new product. An update that also carries a {@code version} is only applied
+ * while the product still has that version.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportRow {
+    private Long id;
+    private Long version;
+    private String name;
+    private BigDecimal price;
+    private Integer stock;
+    private String category;
+    private Boolean isActive;
+}
@@ -0,0 +1,21 @@
+package com.example.EcOMS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesStatisticsDTO {
+    private LocalDate day;
+    private String category;
+    private long orderCount;
+    private long units;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,53 @@
+package com.example.EcOMS.entity;
+
+import com.example.EcOMS.enums.OrderStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A DELIVERED or CANCELLED order moved out of {@code orders} once it aged past the archive
+ * cutoff. Same columns and id as the live row, plus when it was archived. Written and read
+ * with JDBC by {@code OrderArchiveRepository}; mapped so the schema is managed with the rest.
+ */
+@Entity
+@Table(name = "orders_archive", indexes = @Index(name = "idx_orders_archive_address_placed_at",
+        columnList = "address, placed_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrder {
+    @Id
+    private Long id;
+
+    @Column(name = "customer_name", nullable = false)
+    private String customerName;
+
+    @Column(name = "customer_phone", nullable = false)
+    private String customerPhone;
+
+    @Column(name = "address", nullable = false)
+    private String customerEmail;
+
+    @Column(name = "create_at")
+    private LocalDateTime orderDate;
+
+    @Column(name = "placed_at")
+    private LocalDateTime placedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "order_status", nullable = false)
+    private OrderStatus orderStatus;
+
+    @Column(name = "total_amount", nullable = false)
+    private BigDecimal totalAmount;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,39 @@
+package com.example.EcOMS.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * An item of an {@link ArchivedOrder}, keeping the id it had in {@code order_items}.
+ */
+@Entity
+@Table(name = "order_items_archive", indexes = @Index(name = "idx_order_items_archive_orders_id",
+        columnList = "orders_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrderItem {
+    @Id
+    private Long id;
+
+    @Column(name = "orders_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "unit_price", nullable = false)
+    private BigDecimal unitPrice;
+
+    @Column(name = "total_price", nullable = false)
+    private BigDecimal totalPrice;
+}
@@ -0,0 +1,60 @@
+package com.example.EcOMS.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class IdempotencyKey implements Persistable<String> {
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String key;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String response;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Keys are assigned by the client, so save() must insert instead of merging
+    @Transient
+    private boolean newEntity = true;
+
+    public IdempotencyKey(String key, String requestHash, Long orderId, String response, LocalDateTime createdAt) {
+        this.key = key;
+        this.requestHash = requestHash;
+        this.orderId = orderId;
+        this.response = response;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+}
@@ -13,7 +13,10 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_address_placed_at", columnList = "address, placed_at"),
+        @Index(name = "idx_orders_status_create_at", columnList = "order_status, create_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -32,9 +35,14 @@ public class Order {
     @Column(name="address",nullable = false)
     private String customerEmail;
 
+    // Moved by onUpdate on every change, so it reads as "last changed"
     @Column(name = "create_at")
     private LocalDateTime orderDate;
 
+    // When the order was placed; never updated, so customer history can page on it
+    @Column(name = "placed_at", updatable = false)
+    private LocalDateTime placedAt;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private OrderStatus orderStatus;
@@ -49,6 +57,7 @@ public class Order {
     @PrePersist
     public void onCreate() {
         orderDate=LocalDateTime.now();
+        placedAt=orderDate;
         if (orderStatus==null) {
             orderStatus=OrderStatus.PENDING;
         }
@@ -10,7 +10,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_name_id", columnList = "name, id"),
+        @Index(name = "idx_products_price_id", columnList = "price, id"),
+        @Index(name = "idx_products_stock_id", columnList = "stock, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -37,4 +41,18 @@ public class Product {
 
     @Column(name = "created_at")
     private LocalDateTime createdAt;
+
+    // Bumped on every update, stock changes included; exposed to clients as the ETag
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = LocalDateTime.now();
+    }
 }
@@ -0,0 +1,47 @@
+package com.example.EcOMS.entity;
+
+import com.example.EcOMS.enums.ProductChangeType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row written in the same transaction as a product or stock change, carrying the
+ * product's state after the change. The id is the offset clients of the change feed
+ * resume from.
+ */
+@Entity
+@Table(name = "product_changes", indexes = @Index(name = "idx_product_changes_changed_at", columnList = "changed_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false)
+    private ProductChangeType changeType;
+
+    private String name;
+
+    private BigDecimal price;
+
+    private Integer stock;
+
+    @Column(name = "is_active")
+    private Boolean isActive;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
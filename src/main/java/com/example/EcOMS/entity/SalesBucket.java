@@ -0,0 +1,59 @@
+package com.example.EcOMS.entity;
+
+import com.example.EcOMS.enums.OrderStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated sales for one day, product category and order status. The row with
+ * category {@code "*"} holds the day's totals, where each order is counted once.
+ */
+@Entity
+@Table(name = "sales_buckets")
+@IdClass(SalesBucket.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesBucket {
+    @Id
+    @Column(name = "bucket_day")
+    private LocalDate day;
+
+    @Id
+    @Column(length = 255)
+    private String category;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "order_status", length = 20)
+    private OrderStatus status;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private LocalDate day;
+        private String category;
+        private OrderStatus status;
+    }
+}
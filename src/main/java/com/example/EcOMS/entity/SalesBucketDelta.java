@@ -0,0 +1,47 @@
+package com.example.EcOMS.entity;
+
+import com.example.EcOMS.enums.OrderStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A change to one {@link SalesBucket}, appended in the same transaction as the order change
+ * that caused it and folded into {@code sales_buckets} later. Written and read with JDBC by
+ * {@code SalesBucketRepository}; mapped so the schema is managed with the rest.
+ */
+@Entity
+@Table(name = "sales_bucket_deltas")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesBucketDelta {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_day", nullable = false)
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private String category;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "order_status", nullable = false, length = 20)
+    private OrderStatus status;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+}
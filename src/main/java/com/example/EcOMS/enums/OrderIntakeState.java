@@ -0,0 +1,7 @@
+package com.example.EcOMS.enums;
+
+public enum OrderIntakeState {
+    QUEUED,
+    ACCEPTED,
+    REJECTED,
+}
@@ -0,0 +1,8 @@
+package com.example.EcOMS.enums;
+
+public enum ProductChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    STOCK
+}
@@ -0,0 +1,6 @@
+package com.example.EcOMS.enums;
+
+public enum ProductImportFormat {
+    CSV,
+    NDJSON
+}
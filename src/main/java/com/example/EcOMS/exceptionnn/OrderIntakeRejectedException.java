@@ -0,0 +1,8 @@
+package com.example.EcOMS.exceptionnn;
+
+
+public class OrderIntakeRejectedException extends RuntimeException {
+    public OrderIntakeRejectedException(String message) {
+        super(message);
+    }
+}
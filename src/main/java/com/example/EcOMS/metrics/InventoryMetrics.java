@@ -0,0 +1,58 @@
+package com.example.EcOMS.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Order rejections and stock-reservation contention: how many callers are currently waiting
+ * for product row locks and how long acquiring them takes.
+ */
+@Component
+public class InventoryMetrics {
+
+    private final Counter insufficientStock;
+    private final Counter duplicateProduct;
+    private final Timer lockWait;
+    private final AtomicInteger lockWaiters = new AtomicInteger();
+
+    public InventoryMetrics(MeterRegistry meterRegistry) {
+        this.insufficientStock = Counter.builder("ecoms.orders.rejected")
+                .description("Orders rejected before being persisted")
+                .tag("reason", "insufficient_stock")
+                .register(meterRegistry);
+        this.duplicateProduct = Counter.builder("ecoms.orders.rejected")
+                .description("Orders rejected before being persisted")
+                .tag("reason", "duplicate_product")
+                .register(meterRegistry);
+        this.lockWait = Timer.builder("ecoms.inventory.lock.wait")
+                .description("Time spent acquiring product row locks")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("ecoms.inventory.lock.waiters", lockWaiters, AtomicInteger::get)
+                .description("Callers currently waiting for product row locks")
+                .register(meterRegistry);
+    }
+
+    public void insufficientStock() {
+        insufficientStock.increment();
+    }
+
+    public void duplicateProduct() {
+        duplicateProduct.increment();
+    }
+
+    public <T> T timeLockAcquisition(Supplier<T> acquire) {
+        lockWaiters.incrementAndGet();
+        try {
+            return lockWait.record(acquire);
+        } finally {
+            lockWaiters.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.EcOMS.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every public service operation and records how many SQL statements it issued.
+ * Ordered outside the transaction interceptor so the time and statements of the commit
+ * flush are attributed to the operation that caused them. Meters are registered on the first
+ * call of each method and outcome and reused afterwards, keeping the registry lookup and
+ * tag building off the hot path.
+ */
+@Aspect
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, OperationMeters> meters = new ConcurrentHashMap<>();
+
+    @Around("execution(public * com.example.EcOMS.service.*Service.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        OperationMeters operation = meters.computeIfAbsent(
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), OperationMeters::new);
+        long statementsBefore = SqlStatementCounter.current();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(operation.timer(outcome));
+            operation.statements.record(SqlStatementCounter.current() - statementsBefore);
+        }
+    }
+
+    private final class OperationMeters {
+
+        private final String service;
+        private final String operation;
+        private final DistributionSummary statements;
+        private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+        OperationMeters(Method method) {
+            this.service = method.getDeclaringClass().getSimpleName();
+            this.operation = method.getName();
+            this.statements = DistributionSummary.builder("ecoms.service.statements")
+                    .description("SQL statements issued per service operation")
+                    .tag("service", service)
+                    .tag("operation", operation)
+                    .register(meterRegistry);
+        }
+
+        Timer timer(String outcome) {
+            return timers.computeIfAbsent(outcome, key -> Timer.builder("ecoms.service.operation")
+                    .description("Service operation latency")
+                    .tag("service", service)
+                    .tag("operation", operation)
+                    .tag("outcome", key)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.EcOMS.metrics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements a request to the annotated handler may issue. Requests
+ * over budget are logged and counted by {@link SqlBudgetInterceptor}. Handlers whose
+ * statement count grows with the payload by design, such as bulk imports, use
+ * {@link #UNLIMITED}: their statements are still measured but never flagged.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlBudget {
+
+    int UNLIMITED = -1;
+
+    int value();
+}
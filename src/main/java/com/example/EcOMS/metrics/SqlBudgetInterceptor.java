@@ -0,0 +1,124 @@
+package com.example.EcOMS.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the SQL statements issued while handling each request and compares the count with
+ * the endpoint's budget. Offenders and repeated identical statements (likely N+1 queries)
+ * are logged and counted; the count and budget are also left on the request as attributes
+ * so tests can assert on them. Meters are registered once per endpoint and then reused.
+ */
+@RequiredArgsConstructor
+public class SqlBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String STATEMENTS_ATTRIBUTE = SqlBudgetInterceptor.class.getName() + ".statements";
+    public static final String BUDGET_ATTRIBUTE = SqlBudgetInterceptor.class.getName() + ".budget";
+
+    private static final Logger log = LoggerFactory.getLogger(SqlBudgetInterceptor.class);
+    private static final String RECORDING_ATTRIBUTE = SqlBudgetInterceptor.class.getName() + ".recording";
+
+    private final SqlBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, EndpointMeters> meters = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            request.setAttribute(RECORDING_ATTRIBUTE, SqlRecording.start());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        // The body is produced on another thread; the async dispatch gets a fresh recording
+        SqlRecording recording = (SqlRecording) request.getAttribute(RECORDING_ATTRIBUTE);
+        if (recording != null) {
+            recording.close();
+            request.removeAttribute(RECORDING_ATTRIBUTE);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        SqlRecording recording = (SqlRecording) request.getAttribute(RECORDING_ATTRIBUTE);
+        if (recording == null) {
+            return;
+        }
+        recording.close();
+        request.removeAttribute(RECORDING_ATTRIBUTE);
+
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        String endpoint = request.getMethod() + " " + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        int statements = recording.count();
+        int budget = budgetFor(handlerMethod);
+        request.setAttribute(STATEMENTS_ATTRIBUTE, statements);
+        request.setAttribute(BUDGET_ATTRIBUTE, budget);
+
+        EndpointMeters endpointMeters = meters.computeIfAbsent(endpoint, EndpointMeters::new);
+        endpointMeters.statements.record(statements);
+
+        log.debug("{} issued {} SQL statements (budget {})", endpoint, statements, budget);
+        if (budget == SqlBudget.UNLIMITED) {
+            return;
+        }
+        if (statements > budget) {
+            endpointMeters.budgetExceeded.increment();
+            log.warn("{} issued {} SQL statements, budget is {}", endpoint, statements, budget);
+        }
+
+        Map<String, Long> repeated = recording.repeated(properties.getRepeatedStatementThreshold());
+        if (!repeated.isEmpty()) {
+            endpointMeters.repeated.increment();
+            repeated.forEach((sql, times) ->
+                    log.warn("Possible N+1 in {}: statement executed {} times: {}", endpoint, times, sql));
+        }
+    }
+
+    private int budgetFor(HandlerMethod handlerMethod) {
+        String key = handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        Integer override = properties.getEndpoints().get(key);
+        if (override != null) {
+            return override;
+        }
+        SqlBudget annotation = handlerMethod.getMethodAnnotation(SqlBudget.class);
+        return annotation != null ? annotation.value() : properties.getDefaultMax();
+    }
+
+    private final class EndpointMeters {
+
+        private final DistributionSummary statements;
+        private final Counter budgetExceeded;
+        private final Counter repeated;
+
+        EndpointMeters(String endpoint) {
+            this.statements = DistributionSummary.builder("ecoms.http.sql.statements")
+                    .description("SQL statements issued per request")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry);
+            this.budgetExceeded = Counter.builder("ecoms.http.sql.budget.exceeded")
+                    .description("Requests that issued more SQL statements than their budget")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry);
+            this.repeated = Counter.builder("ecoms.http.sql.repeated")
+                    .description("Requests that repeated an identical SQL statement, a likely N+1")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry);
+        }
+    }
+}
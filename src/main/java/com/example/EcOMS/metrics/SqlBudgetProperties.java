@@ -0,0 +1,25 @@
+package com.example.EcOMS.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "ecoms.sql-budget")
+public class SqlBudgetProperties {
+
+    private boolean enabled = true;
+
+    /** Budget for handlers without a {@link SqlBudget} annotation or override. */
+    private int defaultMax = 20;
+
+    /** Identical statements repeated this often within one request are reported as a likely N+1. */
+    private int repeatedStatementThreshold = 5;
+
+    /** Per-handler overrides keyed by {@code Controller.method}, e.g. {@code OrderController.getOrderById}. */
+    private Map<String, Integer> endpoints = new HashMap<>();
+}
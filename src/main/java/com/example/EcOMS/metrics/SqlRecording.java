@@ -0,0 +1,85 @@
+package com.example.EcOMS.metrics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Captures the SQL executed on the current thread between {@link #start()} and
+ * {@link #close()}, as reported by the datasource-proxy listener {@link SqlStatementCounter}:
+ * Hibernate and JdbcTemplate statements alike, with a JDBC batch recorded once.
+ *
+ * <p>Recordings nest: a statement is added to every recording open on the thread, so a test
+ * can wrap a request that the budget interceptor is recording as well.
+ */
+public final class SqlRecording implements AutoCloseable {
+
+    private static final ThreadLocal<Deque<SqlRecording>> ACTIVE = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final List<String> statements = new ArrayList<>();
+    private boolean closed;
+
+    private SqlRecording() {
+    }
+
+    public static SqlRecording start() {
+        SqlRecording recording = new SqlRecording();
+        ACTIVE.get().push(recording);
+        return recording;
+    }
+
+    static void record(String sql) {
+        Deque<SqlRecording> active = ACTIVE.get();
+        if (active.isEmpty()) {
+            return;
+        }
+        String normalized = sql.trim().toLowerCase(Locale.ROOT);
+        for (SqlRecording recording : active) {
+            recording.statements.add(normalized);
+        }
+    }
+
+    public int count() {
+        return statements.size();
+    }
+
+    /**
+     * Statements starting with {@code verb} (for example {@code "select"}) that contain
+     * {@code fragment}, typically a table name.
+     */
+    public long count(String verb, String fragment) {
+        return statements.stream()
+                .filter(sql -> sql.startsWith(verb) && sql.contains(fragment))
+                .count();
+    }
+
+    public List<String> statements() {
+        return List.copyOf(statements);
+    }
+
+    /**
+     * Identical statements issued at least {@code threshold} times, the usual signature of
+     * an N+1 access pattern.
+     */
+    public Map<String, Long> repeated(int threshold) {
+        return statements.stream()
+                .collect(Collectors.groupingBy(Function.identity(), LinkedHashMap::new, Collectors.counting()))
+                .entrySet().stream()
+                .filter(e -> e.getValue() >= threshold)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            ACTIVE.get().remove(this);
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.EcOMS.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+/**
+ * Counts the SQL statements executed on the current thread, whether they come from
+ * Hibernate or from {@code JdbcTemplate}. A JDBC batch counts once, as it is one round
+ * trip. Callers take a reading before and after a unit of work and use the difference,
+ * or open a {@link SqlRecording} to capture the statements themselves.
+ */
+public class SqlStatementCounter implements QueryExecutionListener {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        for (QueryInfo query : queryInfoList) {
+            COUNT.get()[0]++;
+            SqlRecording.record(query.getQuery());
+        }
+    }
+
+    public static long current() {
+        return COUNT.get()[0];
+    }
+}
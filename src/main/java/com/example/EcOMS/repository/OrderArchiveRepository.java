@@ -0,0 +1,123 @@
+package com.example.EcOMS.repository;
+
+import com.example.EcOMS.dto.OrderRow;
+import com.example.EcOMS.enums.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Moves terminal orders from {@code orders}/{@code order_items} into
+ * {@code orders_archive}/{@code order_items_archive} with set-based statements, and reads
+ * them back for the lookups that fall back to the archive.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderArchiveRepository {
+
+    public static final List<String> ARCHIVABLE_STATUSES =
+            List.of(OrderStatus.DELIVERED.name(), OrderStatus.CANCELLED.name());
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    /**
+     * Moves up to {@code limit} DELIVERED or CANCELLED orders last changed before
+     * {@code cutoff}, with their items, into the archive tables. Orders locked by other
+     * transactions are skipped. Returns the number of orders moved.
+     */
+    public int archiveBefore(LocalDateTime cutoff, int limit, LocalDateTime archivedAt) {
+        List<Long> ids = namedJdbcTemplate.queryForList(
+                "SELECT id FROM orders WHERE order_status IN (:statuses) AND create_at < :cutoff " +
+                        "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+                new MapSqlParameterSource("statuses", ARCHIVABLE_STATUSES)
+                        .addValue("cutoff", Timestamp.valueOf(cutoff))
+                        .addValue("limit", limit),
+                Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids)
+                .addValue("archivedAt", Timestamp.valueOf(archivedAt));
+        namedJdbcTemplate.update(
+                "INSERT INTO orders_archive (id, customer_name, customer_phone, address, create_at, placed_at, " +
+                        "order_status, total_amount, archived_at) SELECT id, customer_name, customer_phone, address, " +
+                        "create_at, placed_at, order_status, total_amount, :archivedAt FROM orders WHERE id IN (:ids)",
+                params);
+        namedJdbcTemplate.update(
+                "INSERT INTO order_items_archive (id, orders_id, product_id, quantity, unit_price, total_price) " +
+                        "SELECT id, orders_id, product_id, quantity, unit_price, total_price FROM order_items " +
+                        "WHERE orders_id IN (:ids)", params);
+        namedJdbcTemplate.update("DELETE FROM order_items WHERE orders_id IN (:ids)", params);
+        namedJdbcTemplate.update("DELETE FROM orders WHERE id IN (:ids)", params);
+        return ids.size();
+    }
+
+    public long countArchivableBefore(LocalDateTime cutoff) {
+        Long count = namedJdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM orders WHERE order_status IN (:statuses) AND create_at < :cutoff",
+                new MapSqlParameterSource("statuses", ARCHIVABLE_STATUSES)
+                        .addValue("cutoff", Timestamp.valueOf(cutoff)),
+                Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Archived orders with the given ids, one row per item, in the shape of
+     * {@code OrderProjectionRepository.findRowsByOrderIdIn}.
+     */
+    public List<OrderRow> findRowsByOrderIdIn(Collection<Long> ids) {
+        return namedJdbcTemplate.query(
+                "SELECT o.id, o.address, o.customer_name, o.customer_phone, o.total_amount, o.order_status, " +
+                        "p.id, p.name, i.quantity, i.unit_price, i.total_price FROM orders_archive o " +
+                        "LEFT JOIN order_items_archive i ON i.orders_id = o.id " +
+                        "LEFT JOIN products p ON p.id = i.product_id " +
+                        "WHERE o.id IN (:ids) ORDER BY o.id, i.id",
+                new MapSqlParameterSource("ids", ids),
+                (rs, i) -> new OrderRow(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getBigDecimal(5), OrderStatus.valueOf(rs.getString(6)),
+                        rs.getObject(7, Long.class), rs.getString(8), rs.getObject(9, Integer.class),
+                        rs.getBigDecimal(10), rs.getBigDecimal(11)));
+    }
+
+    /**
+     * Number of the customer's orders, live and archived.
+     */
+    public long countHistoryByCustomerEmail(String email) {
+        Long count = namedJdbcTemplate.queryForObject(
+                "SELECT (SELECT COUNT(*) FROM orders WHERE address = :email) + " +
+                        "(SELECT COUNT(*) FROM orders_archive WHERE address = :email)",
+                new MapSqlParameterSource("email", email), Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * A page of the customer's live and archived orders merged newest placed first, so
+     * archiving an order does not move it in the history.
+     */
+    public List<HistoryEntry> findHistoryByCustomerEmail(String email, long offset, int limit) {
+        return namedJdbcTemplate.query(
+                "SELECT id, archived FROM (" +
+                        "SELECT id, placed_at, FALSE AS archived FROM orders WHERE address = :email " +
+                        "UNION ALL SELECT id, placed_at, TRUE FROM orders_archive WHERE address = :email) h " +
+                        "ORDER BY placed_at DESC, id DESC LIMIT :limit OFFSET :offset",
+                new MapSqlParameterSource("email", email)
+                        .addValue("limit", limit)
+                        .addValue("offset", offset),
+                (rs, i) -> new HistoryEntry(rs.getLong(1), rs.getBoolean(2)));
+    }
+
+    public boolean existsById(Long id) {
+        return !namedJdbcTemplate.queryForList("SELECT id FROM orders_archive WHERE id = :id",
+                new MapSqlParameterSource("id", id), Long.class).isEmpty();
+    }
+
+    public record HistoryEntry(long id, boolean archived) {
+    }
+}
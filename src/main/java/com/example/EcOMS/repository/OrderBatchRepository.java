@@ -0,0 +1,179 @@
+package com.example.EcOMS.repository;
+
+import com.example.EcOMS.entity.Order;
+import com.example.EcOMS.entity.OrderItem;
+import com.example.EcOMS.enums.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Inserts orders and their items with JDBC batches. The entities use IDENTITY ids,
+ * which stops Hibernate from batching inserts, so order creation writes through here and
+ * read the generated ids back from the batch. Bulk status changes are applied here too, as
+ * set-based statements over the whole id set.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderBatchRepository {
+
+    private static final String INSERT_ORDER =
+            "INSERT INTO orders (customer_name, customer_phone, address, create_at, placed_at, order_status, " +
+                    "total_amount) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ORDER_ITEM =
+            "INSERT INTO order_items (orders_id, product_id, quantity, unit_price, total_price) " +
+                    "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public void insertAll(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_ORDER, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Order order = orders.get(i);
+                        ps.setString(1, order.getCustomerName());
+                        ps.setString(2, order.getCustomerPhone());
+                        ps.setString(3, order.getCustomerEmail());
+                        ps.setTimestamp(4, now);
+                        ps.setTimestamp(5, now);
+                        ps.setString(6, order.getOrderStatus().name());
+                        ps.setBigDecimal(7, order.getTotalAmount());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return orders.size();
+                    }
+                },
+                keyHolder);
+
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            order.setId(((Number) keyHolder.getKeyList().get(i).get("id")).longValue());
+            order.setOrderDate(now.toLocalDateTime());
+            order.setPlacedAt(now.toLocalDateTime());
+            items.addAll(order.getOrderItems());
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_ORDER_ITEM, items, items.size(), (ps, item) -> {
+            ps.setLong(1, item.getOrder().getId());
+            ps.setLong(2, item.getProduct().getId());
+            ps.setInt(3, item.getQuantity());
+            ps.setBigDecimal(4, item.getUnitPrice());
+            ps.setBigDecimal(5, item.getTotalPrice());
+        });
+    }
+
+    /**
+     * Ids of PENDING orders matching the filter, lowest first. Null filter fields match
+     * every order.
+     */
+    public List<Long> findPendingIds(String customerEmail, LocalDateTime createdBefore, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        StringBuilder sql = new StringBuilder("SELECT id FROM orders WHERE order_status = 'PENDING'");
+        if (customerEmail != null) {
+            sql.append(" AND address = :email");
+            params.addValue("email", customerEmail);
+        }
+        if (createdBefore != null) {
+            sql.append(" AND create_at < :before");
+            params.addValue("before", Timestamp.valueOf(createdBefore));
+        }
+        sql.append(" ORDER BY id LIMIT :limit");
+        return namedJdbcTemplate.queryForList(sql.toString(), params, Long.class);
+    }
+
+    /**
+     * Locks the orders with the given ids and returns their current state, in id order.
+     */
+    public List<OrderState> lockStates(Collection<Long> ids) {
+        return namedJdbcTemplate.query(
+                "SELECT id, order_status, placed_at, total_amount FROM orders WHERE id IN (:ids) ORDER BY id FOR UPDATE",
+                new MapSqlParameterSource("ids", ids),
+                OrderBatchRepository::orderState);
+    }
+
+    /**
+     * Claims up to {@code limit} PENDING orders placed before {@code cutoff}, oldest ids
+     * first. Rows locked by other transactions are skipped, so concurrent callers on
+     * different nodes claim disjoint sets.
+     */
+    public List<OrderState> claimPendingBefore(LocalDateTime cutoff, int limit) {
+        return namedJdbcTemplate.query(
+                "SELECT id, order_status, placed_at, total_amount FROM orders " +
+                        "WHERE order_status = 'PENDING' AND create_at < :cutoff " +
+                        "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+                new MapSqlParameterSource("cutoff", Timestamp.valueOf(cutoff)).addValue("limit", limit),
+                OrderBatchRepository::orderState);
+    }
+
+    public long countPendingBefore(LocalDateTime cutoff) {
+        Long count = namedJdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM orders WHERE order_status = 'PENDING' AND create_at < :cutoff",
+                new MapSqlParameterSource("cutoff", Timestamp.valueOf(cutoff)), Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Sets the status of every given order in one statement. Like the entity's update
+     * callback, this also moves {@code create_at} to {@code changedAt}.
+     */
+    public int updateStatus(Collection<Long> ids, OrderStatus status, LocalDateTime changedAt) {
+        return namedJdbcTemplate.update(
+                "UPDATE orders SET order_status = :status, create_at = :changedAt WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", ids)
+                        .addValue("status", status.name())
+                        .addValue("changedAt", Timestamp.valueOf(changedAt)));
+    }
+
+    /**
+     * Total quantity the given orders hold of each product, keyed by product id in ascending
+     * order.
+     */
+    public Map<Long, Integer> sumQuantitiesByProduct(Collection<Long> orderIds) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        namedJdbcTemplate.query(
+                "SELECT product_id, SUM(quantity) FROM order_items WHERE orders_id IN (:ids) GROUP BY product_id",
+                new MapSqlParameterSource("ids", orderIds),
+                rs -> {
+                    quantities.put(rs.getLong(1), rs.getInt(2));
+                });
+        return quantities;
+    }
+
+    private static OrderState orderState(ResultSet rs, int rowNum) throws SQLException {
+        return new OrderState(rs.getLong(1), OrderStatus.valueOf(rs.getString(2)),
+                rs.getTimestamp(3).toLocalDateTime(), rs.getBigDecimal(4));
+    }
+
+    public record OrderState(Long id, OrderStatus status, LocalDateTime placedAt, BigDecimal totalAmount) {
+    }
+}
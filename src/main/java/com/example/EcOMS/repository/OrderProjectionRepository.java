@@ -0,0 +1,29 @@
+package com.example.EcOMS.repository;
+
+import com.example.EcOMS.dto.OrderRow;
+import com.example.EcOMS.entity.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read-only order queries that select the needed columns straight into {@link OrderRow}s,
+ * skipping entity hydration and persistence-context snapshots.
+ */
+public interface OrderProjectionRepository extends Repository<Order, Long> {
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500")
+    })
+    @Query("SELECT new com.example.EcOMS.dto.OrderRow(o.id, o.customerEmail, o.customerName, o.customerPhone, " +
+            "o.totalAmount, o.orderStatus, p.id, p.name, oi.quantity, oi.unitPrice, oi.totalPrice) " +
+            "FROM Order o LEFT JOIN o.orderItems oi LEFT JOIN oi.product p " +
+            "WHERE o.id IN :ids ORDER BY o.id, oi.id")
+    List<OrderRow> findRowsByOrderIdIn(Collection<Long> ids);
+}
@@ -3,7 +3,12 @@ package com.example.EcOMS.repository;
 
 
 import com.example.EcOMS.entity.Order;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -21,6 +26,14 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.id = :id")
     Optional<Order> findById(Long id);
 
-    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.customerEmail = :email")
-    List<Order> findByCustomerEmail(String email);
+    // No fetch join: PostgreSQL cannot lock the nullable side of an outer join
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(Long id);
+
+    @Query("SELECT o.id FROM Order o")
+    Page<Long> findPageOfIds(Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o WHERE o.id > :afterId ORDER BY o.id")
+    List<Long> findIdsAfter(Long afterId, Limit limit);
 }
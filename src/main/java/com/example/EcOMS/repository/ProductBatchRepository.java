@@ -0,0 +1,160 @@
+package com.example.EcOMS.repository;
+
+import com.example.EcOMS.entity.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Writes products with JDBC batches. Hibernate cannot batch inserts into the IDENTITY
+ * keyed {@code products} table, which makes bulk loads pay a round trip per row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductBatchRepository {
+
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO products (name, price, stock, category, is_active, created_at, version, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, 0, ?)";
+
+    private static final String UPDATE_PRODUCT =
+            "UPDATE products SET name = ?, price = ?, stock = ?, category = ?, is_active = COALESCE(?, is_active), " +
+                    "version = version + 1, updated_at = ? WHERE id = ? AND version = COALESCE(?, version)";
+
+    private static final String ADD_STOCK =
+            "UPDATE products SET stock = stock + ?, version = version + 1, updated_at = ? WHERE id = ?";
+
+    private static final String TAKE_STOCK =
+            "UPDATE products SET stock = stock - ?, version = version + 1, updated_at = ? WHERE id = ? AND stock >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    /**
+     * Inserts {@code products} in one batch and sets their generated ids.
+     */
+    public void insertAll(List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_PRODUCT, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Product product = products.get(i);
+                        ps.setString(1, product.getName());
+                        ps.setBigDecimal(2, product.getPrice());
+                        ps.setInt(3, product.getStock());
+                        ps.setString(4, product.getCategory());
+                        ps.setBoolean(5, product.getIsActive());
+                        ps.setTimestamp(6, Timestamp.valueOf(product.getCreatedAt()));
+                        ps.setTimestamp(7, Timestamp.valueOf(product.getCreatedAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return products.size();
+                    }
+                },
+                keyHolder);
+
+        for (int i = 0; i < products.size(); i++) {
+            products.get(i).setId(((Number) keyHolder.getKeyList().get(i).get("id")).longValue());
+        }
+    }
+
+    /**
+     * Updates {@code products} by id in one batch, bumping their version. A null
+     * {@code isActive} keeps the stored flag. Where {@code expectedVersions} holds a version
+     * for a product, the row is only written while it still has that version. Returns the
+     * update count of each product, 0 where the id does not exist or the version moved on.
+     * Pass the products in id order, as for {@link #takeStock}, so concurrent writers lock
+     * the rows in the same order.
+     */
+    public int[] updateAll(List<Product> products, Map<Long, Long> expectedVersions) {
+        if (products.isEmpty()) {
+            return new int[0];
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.batchUpdate(UPDATE_PRODUCT, products, products.size(), (ps, product) -> {
+            ps.setString(1, product.getName());
+            ps.setBigDecimal(2, product.getPrice());
+            ps.setInt(3, product.getStock());
+            ps.setString(4, product.getCategory());
+            ps.setObject(5, product.getIsActive(), Types.BOOLEAN);
+            ps.setTimestamp(6, now);
+            ps.setLong(7, product.getId());
+            ps.setObject(8, expectedVersions.get(product.getId()), Types.BIGINT);
+        })[0];
+    }
+
+    /**
+     * Current version of each of {@code ids} that exists.
+     */
+    public Map<Long, Long> findVersions(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return namedJdbcTemplate.query("SELECT id, version FROM products WHERE id IN (:ids)",
+                        new MapSqlParameterSource("ids", ids),
+                        (rs, rowNum) -> Map.entry(rs.getLong("id"), rs.getLong("version")))
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    /**
+     * Takes the given quantities from stock with one conditional UPDATE per product, sent as
+     * a single batch. Returns the update count of each product in the map's order, 0 where
+     * the product has less stock than asked for. Pass the quantities in product-id order, as
+     * for {@link #addStock}.
+     */
+    public int[] takeStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return new int[0];
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Map.Entry<Long, Integer>> entries = List.copyOf(quantities.entrySet());
+        return jdbcTemplate.batchUpdate(TAKE_STOCK, entries, entries.size(), (ps, entry) -> {
+            ps.setInt(1, entry.getValue());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, entry.getKey());
+            ps.setInt(4, entry.getValue());
+        })[0];
+    }
+
+    /**
+     * Adds the given quantities to stock with one UPDATE per product, sent as a single batch.
+     * Pass the quantities in product-id order so rows are locked in the same order as
+     * {@code ProductRepository.findAllByIdForUpdate}.
+     */
+    public void addStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Map.Entry<Long, Integer>> entries = List.copyOf(quantities.entrySet());
+        jdbcTemplate.batchUpdate(ADD_STOCK, entries, entries.size(), (ps, entry) -> {
+            ps.setInt(1, entry.getValue());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, entry.getKey());
+        });
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.EcOMS.repository;
+
+import com.example.EcOMS.dto.ProductChangeEvent;
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.enums.ProductChangeType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The {@code product_changes} outbox. Writers append to it inside their own transaction,
+ * either from entities they hold or, after set-based updates, from the rows themselves;
+ * the change feed reads it back in id order.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductChangeRepository {
+
+    private static final String COLUMNS = "id, product_id, change_type, name, price, stock, is_active, changed_at";
+
+    private static final RowMapper<ProductChangeEvent> EVENT = (rs, i) -> new ProductChangeEvent(
+            rs.getLong(1), rs.getLong(2), ProductChangeType.valueOf(rs.getString(3)), rs.getString(4),
+            rs.getBigDecimal(5), rs.getObject(6, Integer.class), rs.getObject(7, Boolean.class),
+            rs.getTimestamp(8).toLocalDateTime());
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    /**
+     * Records the given products as they are in memory, so changes Hibernate has not flushed
+     * yet are captured too.
+     */
+    public void insertAll(Collection<Product> products, ProductChangeType type) {
+        if (products.isEmpty()) {
+            return;
+        }
+        Timestamp changedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Product> rows = List.copyOf(products);
+        namedJdbcTemplate.getJdbcTemplate().batchUpdate(
+                "INSERT INTO product_changes (product_id, change_type, name, price, stock, is_active, changed_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                rows, rows.size(), (ps, product) -> {
+                    ps.setLong(1, product.getId());
+                    ps.setString(2, type.name());
+                    ps.setString(3, product.getName());
+                    ps.setBigDecimal(4, product.getPrice());
+                    ps.setObject(5, product.getStock());
+                    ps.setObject(6, product.getIsActive());
+                    ps.setTimestamp(7, changedAt);
+                });
+    }
+
+    /**
+     * Records the current rows of the given products, for writes made with plain SQL.
+     */
+    public void insertSnapshots(Collection<Long> productIds, ProductChangeType type) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        namedJdbcTemplate.update(
+                "INSERT INTO product_changes (product_id, change_type, name, price, stock, is_active, changed_at) " +
+                        "SELECT id, :type, name, price, stock, is_active, :changedAt FROM products WHERE id IN (:ids) " +
+                        "ORDER BY id",
+                new MapSqlParameterSource("ids", productIds)
+                        .addValue("type", type.name())
+                        .addValue("changedAt", Timestamp.valueOf(LocalDateTime.now())));
+    }
+
+    public List<ProductChangeEvent> findAfter(long afterId, int limit) {
+        return namedJdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM product_changes WHERE id > :after ORDER BY id LIMIT :limit",
+                new MapSqlParameterSource("after", afterId).addValue("limit", limit),
+                EVENT);
+    }
+
+    public List<ProductChangeEvent> findByIds(Collection<Long> ids) {
+        return namedJdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM product_changes WHERE id IN (:ids) ORDER BY id",
+                new MapSqlParameterSource("ids", ids),
+                EVENT);
+    }
+
+    /**
+     * The latest change of each product within {@code (afterId, upToId]}, in id order.
+     */
+    public List<ProductChangeEvent> findLatestPerProduct(long afterId, long upToId, int limit) {
+        return namedJdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM product_changes WHERE id IN (" +
+                        "SELECT MAX(id) FROM product_changes WHERE id > :after AND id <= :upTo GROUP BY product_id) " +
+                        "ORDER BY id LIMIT :limit",
+                new MapSqlParameterSource("after", afterId)
+                        .addValue("upTo", upToId)
+                        .addValue("limit", limit),
+                EVENT);
+    }
+
+    public long findMaxId() {
+        Long max = namedJdbcTemplate.getJdbcTemplate().queryForObject("SELECT MAX(id) FROM product_changes", Long.class);
+        return max == null ? 0 : max;
+    }
+
+    /**
+     * Smallest id still retained, or {@code null} when the outbox is empty.
+     */
+    public Long findMinId() {
+        return namedJdbcTemplate.getJdbcTemplate().queryForObject("SELECT MIN(id) FROM product_changes", Long.class);
+    }
+
+    public int deleteBefore(LocalDateTime cutoff) {
+        return namedJdbcTemplate.update("DELETE FROM product_changes WHERE changed_at < :cutoff",
+                new MapSqlParameterSource("cutoff", Timestamp.valueOf(cutoff)));
+    }
+}
@@ -2,16 +2,26 @@ package com.example.EcOMS.repository;
 
 
 
+import com.example.EcOMS.dto.ProductCategory;
+import com.example.EcOMS.dto.ProductVersion;
 import com.example.EcOMS.entity.Product;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
 
     @Query("SELECT p FROM Product p WHERE " +
             "(:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
@@ -20,4 +30,23 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             @Param("name") String name,
             @Param("category") String category,
             Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Product> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT oi.product.id FROM OrderItem oi GROUP BY oi.product.id ORDER BY SUM(oi.quantity) DESC")
+    List<Long> findBestSellingProductIds(Limit limit);
+
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("SELECT new com.example.EcOMS.dto.ProductCategory(p.id, p.category) FROM Product p WHERE p.id IN :ids")
+    List<ProductCategory> findCategoriesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.example.EcOMS.dto.ProductVersion(p.id, p.version, COALESCE(p.updatedAt, p.createdAt)) " +
+            "FROM Product p WHERE p.id = :id")
+    Optional<ProductVersion> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT p.stock FROM Product p WHERE p.id = :id")
+    Integer findStockById(@Param("id") Long id);
 }
@@ -0,0 +1,202 @@
+package com.example.EcOMS.repository;
+
+import com.example.EcOMS.dto.SalesStatisticsDTO;
+import com.example.EcOMS.entity.SalesBucket;
+import com.example.EcOMS.enums.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reads and writes the pre-aggregated {@code sales_buckets} with plain JDBC. Order changes
+ * append rows to {@code sales_bucket_deltas}; a fold moves them into the buckets as one
+ * batch of relative upserts, so two nodes folding the first deltas of a new bucket do not
+ * fail on its key. Reads add the deltas not folded yet, and a rebuild recomputes every
+ * bucket from the order history.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SalesBucketRepository {
+
+    public static final String TOTAL_CATEGORY = "*";
+    public static final String UNCATEGORIZED = "uncategorized";
+
+    // PostgreSQL's MERGE can still fail on the key when two transactions insert the same row
+    private static final String UPSERT_BUCKET_POSTGRESQL =
+            "INSERT INTO sales_buckets (order_count, units, revenue, bucket_day, category, order_status) " +
+                    "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (bucket_day, category, order_status) DO UPDATE SET " +
+                    "order_count = sales_buckets.order_count + EXCLUDED.order_count, " +
+                    "units = sales_buckets.units + EXCLUDED.units, " +
+                    "revenue = sales_buckets.revenue + EXCLUDED.revenue";
+
+    private static final String UPSERT_BUCKET_STANDARD =
+            "MERGE INTO sales_buckets b USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), " +
+                    "CAST(? AS NUMERIC(19, 2)), CAST(? AS DATE), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(20)))) " +
+                    "AS d (order_count, units, revenue, bucket_day, category, order_status) " +
+                    "ON b.bucket_day = d.bucket_day AND b.category = d.category AND b.order_status = d.order_status " +
+                    "WHEN MATCHED THEN UPDATE SET order_count = b.order_count + d.order_count, " +
+                    "units = b.units + d.units, revenue = b.revenue + d.revenue " +
+                    "WHEN NOT MATCHED THEN INSERT (order_count, units, revenue, bucket_day, category, order_status) " +
+                    "VALUES (d.order_count, d.units, d.revenue, d.bucket_day, d.category, d.order_status)";
+
+    private static final String INSERT_DELTA =
+            "INSERT INTO sales_bucket_deltas (order_count, units, revenue, bucket_day, category, order_status) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)";
+
+    // The rebuild covers archived orders too, so archiving never changes the statistics
+    private static final String ALL_ORDERS =
+            "(SELECT id, placed_at, order_status, total_amount FROM orders " +
+                    "UNION ALL SELECT id, placed_at, order_status, total_amount FROM orders_archive)";
+
+    private static final String ALL_ORDER_ITEMS =
+            "(SELECT orders_id, product_id, quantity, total_price FROM order_items " +
+                    "UNION ALL SELECT orders_id, product_id, quantity, total_price FROM order_items_archive)";
+
+    private static final String REBUILD_CATEGORIES =
+            "INSERT INTO sales_buckets (bucket_day, category, order_status, order_count, units, revenue) " +
+                    "SELECT CAST(o.placed_at AS DATE), COALESCE(p.category, '" + UNCATEGORIZED + "'), o.order_status, " +
+                    "COUNT(DISTINCT o.id), SUM(oi.quantity), SUM(oi.total_price) " +
+                    "FROM " + ALL_ORDERS + " o JOIN " + ALL_ORDER_ITEMS + " oi ON oi.orders_id = o.id " +
+                    "JOIN products p ON p.id = oi.product_id " +
+                    "GROUP BY CAST(o.placed_at AS DATE), COALESCE(p.category, '" + UNCATEGORIZED + "'), o.order_status";
+
+    private static final String REBUILD_TOTALS =
+            "INSERT INTO sales_buckets (bucket_day, category, order_status, order_count, units, revenue) " +
+                    "SELECT CAST(o.placed_at AS DATE), '" + TOTAL_CATEGORY + "', o.order_status, " +
+                    "COUNT(*), SUM(u.units), SUM(o.total_amount) " +
+                    "FROM " + ALL_ORDERS + " o " +
+                    "JOIN (SELECT orders_id, SUM(quantity) AS units FROM " + ALL_ORDER_ITEMS + " i GROUP BY orders_id) u " +
+                    "ON u.orders_id = o.id " +
+                    "GROUP BY CAST(o.placed_at AS DATE), o.order_status";
+
+    private static final Comparator<SalesBucket> KEY_ORDER = Comparator.comparing(SalesBucket::getDay)
+            .thenComparing(SalesBucket::getCategory)
+            .thenComparing(bucket -> bucket.getStatus().name());
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    private volatile String upsertBucket;
+
+    public void insertDeltas(List<SalesBucket> deltas) {
+        if (!deltas.isEmpty()) {
+            namedJdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_DELTA, deltas, deltas.size(),
+                    SalesBucketRepository::bind);
+        }
+    }
+
+    /**
+     * Locks up to {@code limit} of the oldest unfolded deltas, skipping rows another fold
+     * holds, and returns their ids and values. Deltas of transactions that have not
+     * committed are not visible yet and are picked up by a later fold.
+     */
+    public List<PendingDelta> lockPendingDeltas(int limit) {
+        return namedJdbcTemplate.query(
+                "SELECT id, bucket_day, category, order_status, order_count, units, revenue " +
+                        "FROM sales_bucket_deltas ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+                new MapSqlParameterSource("limit", limit),
+                (rs, i) -> new PendingDelta(rs.getLong(1), new SalesBucket(rs.getDate(2).toLocalDate(),
+                        rs.getString(3), OrderStatus.valueOf(rs.getString(4)),
+                        rs.getLong(5), rs.getLong(6), rs.getBigDecimal(7))));
+    }
+
+    public void deleteDeltas(Collection<Long> ids) {
+        namedJdbcTemplate.update("DELETE FROM sales_bucket_deltas WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", ids));
+    }
+
+    /**
+     * Adds {@code deltas} to their buckets, creating the buckets that do not exist yet. Rows
+     * are written in key order, so concurrent folds lock shared buckets in the same order.
+     */
+    public void applyDeltas(List<SalesBucket> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<SalesBucket> sorted = new ArrayList<>(deltas);
+        sorted.sort(KEY_ORDER);
+        namedJdbcTemplate.getJdbcTemplate().batchUpdate(upsertBucket(), sorted, sorted.size(),
+                SalesBucketRepository::bind);
+    }
+
+    public List<SalesStatisticsDTO> findStatistics(LocalDate from, LocalDate to,
+                                                   Collection<OrderStatus> statuses, String category) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Date.valueOf(from))
+                .addValue("to", Date.valueOf(to))
+                .addValue("statuses", statuses.stream().map(OrderStatus::name).toList());
+        String categoryFilter = "";
+        if (category != null) {
+            categoryFilter = " AND category = :category";
+            params.addValue("category", category);
+        }
+        String filter = " WHERE bucket_day BETWEEN :from AND :to AND order_status IN (:statuses)" + categoryFilter;
+        return namedJdbcTemplate.query(
+                "SELECT bucket_day, category, SUM(order_count), SUM(units), SUM(revenue) FROM (" +
+                        "SELECT bucket_day, category, order_count, units, revenue FROM sales_buckets" + filter +
+                        " UNION ALL SELECT bucket_day, category, order_count, units, revenue " +
+                        "FROM sales_bucket_deltas" + filter + ") b " +
+                        "GROUP BY bucket_day, category " +
+                        "HAVING SUM(order_count) <> 0 OR SUM(units) <> 0 OR SUM(revenue) <> 0 " +
+                        "ORDER BY bucket_day, category",
+                params,
+                (rs, i) -> new SalesStatisticsDTO(rs.getDate(1).toLocalDate(), rs.getString(2),
+                        rs.getLong(3), rs.getLong(4), rs.getBigDecimal(5)));
+    }
+
+    /**
+     * Units and revenue of the given orders per product category, one row per order and
+     * category.
+     */
+    public List<OrderCategoryLine> findOrderLines(Collection<Long> orderIds) {
+        return namedJdbcTemplate.query(
+                "SELECT oi.orders_id, COALESCE(p.category, '" + UNCATEGORIZED + "'), SUM(oi.quantity), " +
+                        "SUM(oi.total_price) FROM order_items oi JOIN products p ON p.id = oi.product_id " +
+                        "WHERE oi.orders_id IN (:ids) GROUP BY oi.orders_id, COALESCE(p.category, '" +
+                        UNCATEGORIZED + "')",
+                new MapSqlParameterSource("ids", orderIds),
+                (rs, i) -> new OrderCategoryLine(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getBigDecimal(4)));
+    }
+
+    public void rebuild() {
+        namedJdbcTemplate.getJdbcTemplate().update("DELETE FROM sales_bucket_deltas");
+        namedJdbcTemplate.getJdbcTemplate().update("DELETE FROM sales_buckets");
+        namedJdbcTemplate.getJdbcTemplate().update(REBUILD_CATEGORIES);
+        namedJdbcTemplate.getJdbcTemplate().update(REBUILD_TOTALS);
+    }
+
+    public record OrderCategoryLine(Long orderId, String category, long units, BigDecimal revenue) {
+    }
+
+    public record PendingDelta(Long id, SalesBucket delta) {
+    }
+
+    private String upsertBucket() {
+        if (upsertBucket == null) {
+            String database = namedJdbcTemplate.getJdbcTemplate().execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            upsertBucket = "PostgreSQL".equals(database) ? UPSERT_BUCKET_POSTGRESQL : UPSERT_BUCKET_STANDARD;
+        }
+        return upsertBucket;
+    }
+
+    private static void bind(PreparedStatement ps, SalesBucket bucket) throws SQLException {
+        ps.setLong(1, bucket.getOrderCount());
+        ps.setLong(2, bucket.getUnits());
+        ps.setBigDecimal(3, bucket.getRevenue());
+        ps.setDate(4, Date.valueOf(bucket.getDay()));
+        ps.setString(5, bucket.getCategory());
+        ps.setString(6, bucket.getStatus().name());
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.EcOMS.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.springframework.dao.DataAccessException;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * The pass shared by the scheduled jobs that work through a backlog of orders in chunks:
+ * up to {@code maxChunks} chunks, stopping at the first short one, then a count of what is
+ * left for the backlog gauge. A database error ends the pass early and the next run
+ * carries on from there.
+ */
+final class ChunkedJob {
+
+    private final Logger log;
+    private final String name;
+    private final int chunkSize;
+    private final int maxChunks;
+    private final Counter processedCounter;
+    private final Timer chunkTimer;
+    private final AtomicLong backlog = new AtomicLong();
+
+    /**
+     * Registers the counter of processed orders, the per-chunk timer and a gauge of the
+     * backlog named {@code backlogGauge}. {@code name} starts the warning logged when a
+     * pass stops early, e.g. "Order expiry".
+     */
+    ChunkedJob(Logger log, String name, int chunkSize, int maxChunks,
+               Counter.Builder processed, Timer.Builder chunk,
+               String backlogGauge, String backlogDescription, MeterRegistry meterRegistry) {
+        this.log = log;
+        this.name = name;
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+        this.processedCounter = processed.register(meterRegistry);
+        this.chunkTimer = chunk.register(meterRegistry);
+        Gauge.builder(backlogGauge, backlog, AtomicLong::get)
+                .description(backlogDescription)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs one pass and returns the number of orders processed. {@code chunk} handles up to
+     * {@code chunkSize} orders and returns how many it did; {@code remaining} counts the
+     * backlog once the pass is over.
+     */
+    int run(IntSupplier chunk, LongSupplier remaining) {
+        int total = 0;
+        try {
+            for (int i = 0; i < maxChunks; i++) {
+                int processed = chunkTimer.record(chunk::getAsInt);
+                processedCounter.increment(processed);
+                total += processed;
+                if (processed < chunkSize) {
+                    break;
+                }
+            }
+            backlog.set(remaining.getAsLong());
+        } catch (DataAccessException e) {
+            log.warn("{} stopped after {} orders, will retry on the next run", name, total, e);
+        }
+        return total;
+    }
+
+    long backlog() {
+        return backlog.get();
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.CreateOrderRequest;
+import com.example.EcOMS.dto.OrderDTO;
+import com.example.EcOMS.entity.IdempotencyKey;
+import com.example.EcOMS.exceptionnn.IdempotencyKeyConflictException;
+import com.example.EcOMS.exceptionnn.InvalidOrderOperationException;
+import com.example.EcOMS.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Deduplicates order submissions carrying an {@code Idempotency-Key}. Completed keys are kept
+ * in a bounded in-memory tier backed by the {@code idempotency_keys} table, which is written
+ * in the same transaction as the order. A retry arriving while the first attempt is still
+ * running waits for its result instead of creating a second order.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final OrderService orderService;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration retention;
+    private final Duration waitTimeout;
+    private final Cache<String, StoredResponse> completed;
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(OrderService orderService,
+                              IdempotencyKeyRepository idempotencyKeyRepository,
+                              TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${ecoms.idempotency.maximum-size:10000}") long maximumSize,
+                              @Value("${ecoms.idempotency.retention:P1D}") Duration retention,
+                              @Value("${ecoms.idempotency.wait-timeout:PT30S}") Duration waitTimeout,
+                              MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.retention = retention;
+        this.waitTimeout = waitTimeout;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(retention)
+                .recordStats()
+                .build();
+        Gauge.builder("ecoms.cache.hit.ratio", completed, c -> c.stats().hitRate())
+                .description("Share of lookups served from the cache")
+                .tag("cache", "idempotency")
+                .register(meterRegistry);
+    }
+
+    public Outcome createOrder(String key, CreateOrderRequest request) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidOrderOperationException(
+                    "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = fingerprint(request);
+
+        StoredResponse cached = completed.getIfPresent(key);
+        if (cached != null) {
+            return replay(key, cached, requestHash);
+        }
+
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return replay(key, await(running), requestHash);
+        }
+
+        try {
+            Optional<IdempotencyKey> row = idempotencyKeyRepository.findById(key);
+            StoredResponse stored = row.filter(this::isRetained).map(this::toStoredResponse).orElse(null);
+            if (stored == null) {
+                stored = execute(key, requestHash, request, row.isPresent());
+            }
+            completed.put(key, stored);
+            mine.complete(stored);
+            return stored.replayed() ? replay(key, stored, requestHash) : new Outcome(stored.order(), false);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ecoms.idempotency.purge-interval:PT1H}")
+    @Transactional
+    public void purgeExpiredKeys() {
+        idempotencyKeyRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+    }
+
+    /**
+     * Creates the order and stores its response under {@code key}. {@code replacesExpired}
+     * says a row past retention still holds the key; it is deleted first so the insert can
+     * take its place.
+     */
+    private StoredResponse execute(String key, String requestHash, CreateOrderRequest request,
+                                   boolean replacesExpired) {
+        try {
+            return transactionTemplate.execute(status -> {
+                if (replacesExpired) {
+                    idempotencyKeyRepository.deleteByKeyCreatedBefore(key, LocalDateTime.now().minus(retention));
+                }
+                OrderDTO order = orderService.createOrder(request);
+                idempotencyKeyRepository.saveAndFlush(new IdempotencyKey(
+                        key, requestHash, order.getId(), serialize(order), LocalDateTime.now()));
+                return new StoredResponse(requestHash, order, false);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another instance stored the key first; its order stands and ours was rolled back
+            StoredResponse stored = load(key);
+            if (stored == null) {
+                throw e;
+            }
+            return new StoredResponse(stored.requestHash(), stored.order(), true);
+        }
+    }
+
+    private StoredResponse load(String key) {
+        return idempotencyKeyRepository.findById(key)
+                .filter(this::isRetained)
+                .map(this::toStoredResponse)
+                .orElse(null);
+    }
+
+    private boolean isRetained(IdempotencyKey row) {
+        return row.getCreatedAt().isAfter(LocalDateTime.now().minus(retention));
+    }
+
+    private StoredResponse toStoredResponse(IdempotencyKey row) {
+        return new StoredResponse(row.getRequestHash(), deserialize(row.getResponse()), true);
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyConflictException(
+                    "A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyConflictException(
+                    "A request with this Idempotency-Key is still being processed");
+        }
+    }
+
+    private Outcome replay(String key, StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyConflictException(
+                    "Idempotency-Key " + key + " was already used with a different request");
+        }
+        return new Outcome(stored.order(), true);
+    }
+
+    private String fingerprint(CreateOrderRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint order request", e);
+        }
+    }
+
+    private String serialize(OrderDTO order) {
+        try {
+            return objectMapper.writeValueAsString(order);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store order response", e);
+        }
+    }
+
+    private OrderDTO deserialize(String response) {
+        try {
+            return objectMapper.readValue(response, OrderDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored order response", e);
+        }
+    }
+
+    public record Outcome(OrderDTO order, boolean replayed) {
+    }
+
+    private record StoredResponse(String requestHash, OrderDTO order, boolean replayed) {
+    }
+}
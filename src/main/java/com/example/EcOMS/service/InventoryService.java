@@ -0,0 +1,137 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.entity.OrderItem;
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.exceptionnn.InsufficientStockException;
+import com.example.EcOMS.metrics.InventoryMetrics;
+import com.example.EcOMS.repository.ProductBatchRepository;
+import com.example.EcOMS.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reserves and releases stock. A single order is reserved with conditional
+ * {@code UPDATE ... WHERE stock >= ?} statements sent as one JDBC batch in product-id order,
+ * so its products' rows are locked from the decrement to the commit rather than from the
+ * start of the checkout. Batches of orders instead lock all their products once with
+ * {@link #lockProducts} and are checked and decremented in memory, leaving the writes to a
+ * single flush. Either way an order is reserved all-or-nothing.
+ */
+@Service
+@RequiredArgsConstructor
+public class InventoryService {
+
+    private final ProductRepository productRepository;
+    private final ProductBatchRepository productBatchRepository;
+    private final ProductCache productCache;
+    private final InventoryMetrics inventoryMetrics;
+
+    /**
+     * Loads products for {@link #reserve} without locking them. Their stock is only a
+     * snapshot; the reservation checks it again in the database.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Product> loadProducts(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        return productRepository.findAllById(new TreeSet<>(productIds)).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    @Transactional
+    public Map<Long, Product> lockProducts(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        List<Product> locked = inventoryMetrics.timeLockAcquisition(
+                () -> productRepository.findAllByIdForUpdate(new TreeSet<>(productIds)));
+        return locked.stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    /**
+     * Takes the items' quantities from stock with conditional decrements. A product that is
+     * short throws, and the caller's transaction rolls back the decrements already made. The
+     * products' in-memory stock is left as loaded.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(List<OrderItem> items) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        Map<Long, Product> products = new HashMap<>();
+        for (OrderItem item : items) {
+            // Already short when loaded: reject without locking any row
+            if (item.getProduct().getStock() < item.getQuantity()) {
+                throw insufficientStock(item.getProduct(), item.getProduct().getStock(), item.getQuantity());
+            }
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+            products.put(item.getProduct().getId(), item.getProduct());
+        }
+
+        List<Long> ids = List.copyOf(quantities.keySet());
+        int[] updated = productBatchRepository.takeStock(quantities);
+        for (int i = 0; i < ids.size(); i++) {
+            if (updated[i] == 0) {
+                Long id = ids.get(i);
+                throw insufficientStock(products.get(id), productRepository.findStockById(id), quantities.get(id));
+            }
+        }
+        productCache.evict(ids);
+    }
+
+    /**
+     * Checks and decrements the stock of products locked by {@link #lockProducts}; the
+     * changes are written by the flush.
+     */
+    @Transactional(propagation = Propagation.MANDATORY, noRollbackFor = InsufficientStockException.class)
+    public void reserveLocked(List<OrderItem> items) {
+        // Check every item before touching any stock so a rejected order leaves the
+        // locked entities unchanged and batch callers can carry on with other orders
+        for (OrderItem item : items) {
+            Product product = item.getProduct();
+            if (product.getStock() < item.getQuantity()) {
+                throw insufficientStock(product, product.getStock(), item.getQuantity());
+            }
+        }
+        for (OrderItem item : items) {
+            Product product = item.getProduct();
+            product.setStock(product.getStock() - item.getQuantity());
+        }
+        productCache.evict(items.stream().map(item -> item.getProduct().getId()).toList());
+    }
+
+    /**
+     * Returns the items' quantities to stock and gives the ids of the products changed.
+     */
+    @Transactional
+    public List<Long> release(List<OrderItem> items) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : items) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        productBatchRepository.addStock(quantities);
+        productCache.evict(quantities.keySet());
+        return List.copyOf(quantities.keySet());
+    }
+
+    private InsufficientStockException insufficientStock(Product product, int available, int requested) {
+        inventoryMetrics.insufficientStock();
+        if (available <= 0) {
+            return new InsufficientStockException("Product is out of stock: " + product.getName());
+        }
+        return new InsufficientStockException(
+                String.format("Insufficient stock for product: %s. Available: %d, Requested: %d",
+                        product.getName(), available, requested));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.repository.OrderArchiveRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Moves DELIVERED and CANCELLED orders that have not changed for
+ * {@code ecoms.order-archive.after} out of {@code orders}/{@code order_items} into the
+ * archive tables, keeping the live tables (and their indexes) at the size of the working
+ * set. Each batch of {@code ecoms.order-archive.batch-size} orders is moved in a
+ * transaction of its own; archived orders stay readable by id and by customer email.
+ */
+@Service
+public class OrderArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiveService.class);
+
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration after;
+    private final int batchSize;
+    private final ChunkedJob job;
+
+    public OrderArchiveService(OrderArchiveRepository orderArchiveRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${ecoms.order-archive.enabled:true}") boolean enabled,
+                               @Value("${ecoms.order-archive.after:P90D}") Duration after,
+                               @Value("${ecoms.order-archive.batch-size:1000}") int batchSize,
+                               @Value("${ecoms.order-archive.max-batches-per-run:50}") int maxBatchesPerRun,
+                               MeterRegistry meterRegistry) {
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.after = after;
+        this.batchSize = batchSize;
+        this.job = new ChunkedJob(log, "Order archiving", batchSize, maxBatchesPerRun,
+                Counter.builder("ecoms.order-archive.archived")
+                        .description("Orders moved to the archive tables"),
+                Timer.builder("ecoms.order-archive.batch")
+                        .description("Time to archive one batch of orders"),
+                "ecoms.order-archive.backlog", "Archivable orders left in the live tables after the last run",
+                meterRegistry);
+    }
+
+    /**
+     * Runs one pass and returns the number of orders archived. A pass stops after
+     * {@code ecoms.order-archive.max-batches-per-run} batches; the next run carries on.
+     */
+    @Scheduled(fixedDelayString = "${ecoms.order-archive.interval:PT1H}",
+            initialDelayString = "${ecoms.order-archive.interval:PT1H}")
+    public int archiveOldOrders() {
+        if (!enabled) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minus(after);
+        int total = job.run(() -> {
+            Integer moved = transactionTemplate.execute(
+                    s -> orderArchiveRepository.archiveBefore(cutoff, batchSize, now));
+            return moved == null ? 0 : moved;
+        }, () -> orderArchiveRepository.countArchivableBefore(cutoff));
+        if (total > 0) {
+            log.info("Archived {} orders unchanged for {}, {} left", total, after, job.backlog());
+        }
+        return total;
+    }
+}
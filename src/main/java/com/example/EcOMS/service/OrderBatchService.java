@@ -0,0 +1,224 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.config.ReadYourWritesTracker;
+import com.example.EcOMS.dto.BatchOrderResponse;
+import com.example.EcOMS.dto.BatchOrderResult;
+import com.example.EcOMS.dto.BulkStatusUpdateRequest;
+import com.example.EcOMS.dto.BulkStatusUpdateResponse;
+import com.example.EcOMS.dto.BulkStatusUpdateResult;
+import com.example.EcOMS.dto.CreateOrderRequest;
+import com.example.EcOMS.dto.OrderItemRequest;
+import com.example.EcOMS.entity.Order;
+import com.example.EcOMS.entity.OrderItem;
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.enums.OrderStatus;
+import com.example.EcOMS.enums.ProductChangeType;
+import com.example.EcOMS.exceptionnn.DuplicateProductInOrderException;
+import com.example.EcOMS.exceptionnn.InsufficientStockException;
+import com.example.EcOMS.exceptionnn.InvalidOrderOperationException;
+import com.example.EcOMS.exceptionnn.ProductNotFoundException;
+import com.example.EcOMS.repository.OrderBatchRepository;
+import com.example.EcOMS.repository.ProductBatchRepository;
+import com.example.EcOMS.repository.ProductChangeRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class OrderBatchService {
+
+    public static final int MAX_BATCH_SIZE = 500;
+    public static final int MAX_STATUS_BATCH_SIZE = 10_000;
+
+    private final OrderService orderService;
+    private final InventoryService inventoryService;
+    private final OrderBatchRepository orderBatchRepository;
+    private final ProductBatchRepository productBatchRepository;
+    private final ProductCache productCache;
+    private final Validator validator;
+    private final SalesStatisticsService salesStatisticsService;
+    private final ReadYourWritesTracker readYourWrites;
+    private final ProductChangeRepository productChangeRepository;
+
+    @Transactional
+    public BatchOrderResponse createOrders(List<CreateOrderRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new InvalidOrderOperationException("Batch must contain at least one order");
+        }
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new InvalidOrderOperationException(
+                    "Batch cannot contain more than " + MAX_BATCH_SIZE + " orders");
+        }
+
+        BatchOrderResult[] results = new BatchOrderResult[requests.size()];
+        List<Integer> candidates = new ArrayList<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            String error = validate(requests.get(i));
+            if (error != null) {
+                results[i] = new BatchOrderResult(i, false, null, error);
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        // One locked load for every product referenced by the batch
+        Map<Long, Product> products = inventoryService.lockProducts(candidates.stream()
+                .flatMap(i -> requests.get(i).getItems().stream())
+                .map(OrderItemRequest::getProductId)
+                .collect(Collectors.toSet()));
+
+        List<Order> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+
+        for (int i : candidates) {
+            try {
+                Order order = orderService.buildOrder(requests.get(i), products);
+                inventoryService.reserveLocked(order.getOrderItems());
+                accepted.add(order);
+                acceptedIndexes.add(i);
+            } catch (ProductNotFoundException | InvalidOrderOperationException | InsufficientStockException e) {
+                results[i] = new BatchOrderResult(i, false, null, e.getMessage());
+            }
+        }
+
+        orderBatchRepository.insertAll(accepted);
+        productChangeRepository.insertAll(accepted.stream()
+                .flatMap(order -> order.getOrderItems().stream())
+                .map(OrderItem::getProduct)
+                .distinct()
+                .toList(), ProductChangeType.STOCK);
+        salesStatisticsService.recordCreated(accepted);
+        readYourWrites.recordOrders(accepted);
+
+        for (int k = 0; k < accepted.size(); k++) {
+            int i = acceptedIndexes.get(k);
+            results[i] = new BatchOrderResult(i, true, orderService.convertToDTO(accepted.get(k)), null);
+        }
+
+        return new BatchOrderResponse(accepted.size(), requests.size() - accepted.size(), List.of(results));
+    }
+
+    /**
+     * Applies {@link OrderService#updateOrderStatus}'s rules to many orders at once: only
+     * PENDING orders change, and cancelling returns their stock. The orders change with one
+     * UPDATE and stock is restored with one UPDATE per product, whatever the number of
+     * orders. Orders are locked before products, as in a single cancellation.
+     */
+    @Transactional
+    public BulkStatusUpdateResponse updateStatuses(BulkStatusUpdateRequest request) {
+        List<Long> ids = resolveIds(request);
+        if (ids.isEmpty()) {
+            return new BulkStatusUpdateResponse(0, 0, List.of());
+        }
+
+        Map<Long, OrderBatchRepository.OrderState> states = orderBatchRepository.lockStates(ids).stream()
+                .collect(Collectors.toMap(OrderBatchRepository.OrderState::id, Function.identity()));
+
+        List<BulkStatusUpdateResult> results = new ArrayList<>(ids.size());
+        List<OrderBatchRepository.OrderState> eligible = new ArrayList<>();
+        for (Long id : ids) {
+            OrderBatchRepository.OrderState state = states.get(id);
+            if (state == null) {
+                results.add(new BulkStatusUpdateResult(id, false, "Order not found with id: " + id));
+            } else if (state.status() != OrderStatus.PENDING) {
+                results.add(new BulkStatusUpdateResult(id, false,
+                        "Only orders with PENDING status can be updated. Current status: " + state.status()));
+            } else {
+                results.add(new BulkStatusUpdateResult(id, true, null));
+                eligible.add(state);
+            }
+        }
+        applyStatus(eligible, request.getStatus());
+
+        return new BulkStatusUpdateResponse(eligible.size(), results.size() - eligible.size(), results);
+    }
+
+    /**
+     * Cancels up to {@code limit} PENDING orders placed before {@code cutoff} and returns
+     * their stock. Orders locked by another transaction, such as another node's run, are
+     * skipped rather than waited for. Returns the number of orders cancelled.
+     */
+    @Transactional
+    public int cancelExpired(LocalDateTime cutoff, int limit) {
+        List<OrderBatchRepository.OrderState> expired = orderBatchRepository.claimPendingBefore(cutoff, limit);
+        applyStatus(expired, OrderStatus.CANCELLED);
+        return expired.size();
+    }
+
+    private void applyStatus(List<OrderBatchRepository.OrderState> orders, OrderStatus status) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        List<Long> ids = orders.stream().map(OrderBatchRepository.OrderState::id).toList();
+        LocalDateTime changedAt = LocalDateTime.now();
+        orderBatchRepository.updateStatus(ids, status, changedAt);
+        if (status == OrderStatus.CANCELLED) {
+            Map<Long, Integer> restored = orderBatchRepository.sumQuantitiesByProduct(ids);
+            productBatchRepository.addStock(restored);
+            productChangeRepository.insertSnapshots(restored.keySet(), ProductChangeType.STOCK);
+            productCache.evict(restored.keySet());
+        }
+        salesStatisticsService.recordStatusChanges(orders, status);
+        readYourWrites.recordOrderIds(ids);
+    }
+
+    private List<Long> resolveIds(BulkStatusUpdateRequest request) {
+        boolean byIds = request.getIds() != null && !request.getIds().isEmpty();
+        boolean byFilter = request.getCustomerEmail() != null || request.getCreatedBefore() != null;
+        if (byIds == byFilter) {
+            throw new InvalidOrderOperationException(
+                    "Provide either ids or a filter (customerEmail, createdBefore), not both");
+        }
+        if (byFilter) {
+            return orderBatchRepository.findPendingIds(request.getCustomerEmail(), request.getCreatedBefore(),
+                    MAX_STATUS_BATCH_SIZE);
+        }
+        if (request.getIds().size() > MAX_STATUS_BATCH_SIZE) {
+            throw new InvalidOrderOperationException(
+                    "Cannot update more than " + MAX_STATUS_BATCH_SIZE + " orders at once");
+        }
+        if (request.getIds().stream().anyMatch(Objects::isNull)) {
+            throw new InvalidOrderOperationException("Order ids cannot be null");
+        }
+        return request.getIds().stream().distinct().toList();
+    }
+
+    private String validate(CreateOrderRequest request) {
+        if (request == null) {
+            return "Order cannot be null";
+        }
+
+        Set<ConstraintViolation<CreateOrderRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .collect(Collectors.joining("; "));
+        }
+
+        if (request.getItems().stream().anyMatch(Objects::isNull)) {
+            return "Order items cannot be null";
+        }
+
+        try {
+            orderService.validateNoDuplicateProducts(request.getItems());
+        } catch (DuplicateProductInOrderException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+}
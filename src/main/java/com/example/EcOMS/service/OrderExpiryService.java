@@ -0,0 +1,74 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.repository.OrderBatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Cancels PENDING orders older than {@code ecoms.order-expiry.ttl} so abandoned checkouts
+ * return their stock. Each run works through the backlog in chunks of
+ * {@code ecoms.order-expiry.chunk-size}, each chunk a short transaction of its own that
+ * claims its orders with {@code SKIP LOCKED}; several nodes can run the reaper at once
+ * without cancelling the same order twice or waiting on each other.
+ */
+@Service
+public class OrderExpiryService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderExpiryService.class);
+
+    private final OrderBatchService orderBatchService;
+    private final OrderBatchRepository orderBatchRepository;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final int chunkSize;
+    private final ChunkedJob job;
+
+    public OrderExpiryService(OrderBatchService orderBatchService,
+                              OrderBatchRepository orderBatchRepository,
+                              @Value("${ecoms.order-expiry.enabled:true}") boolean enabled,
+                              @Value("${ecoms.order-expiry.ttl:PT30M}") Duration ttl,
+                              @Value("${ecoms.order-expiry.chunk-size:500}") int chunkSize,
+                              @Value("${ecoms.order-expiry.max-chunks-per-run:20}") int maxChunksPerRun,
+                              MeterRegistry meterRegistry) {
+        this.orderBatchService = orderBatchService;
+        this.orderBatchRepository = orderBatchRepository;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.chunkSize = chunkSize;
+        this.job = new ChunkedJob(log, "Order expiry", chunkSize, maxChunksPerRun,
+                Counter.builder("ecoms.order-expiry.expired")
+                        .description("PENDING orders cancelled after their TTL"),
+                Timer.builder("ecoms.order-expiry.chunk")
+                        .description("Time to cancel one chunk of expired orders"),
+                "ecoms.order-expiry.backlog", "Expired PENDING orders left after the last run",
+                meterRegistry);
+    }
+
+    /**
+     * Runs one pass and returns the number of orders cancelled. A pass stops after
+     * {@code ecoms.order-expiry.max-chunks-per-run} chunks; the next run carries on.
+     */
+    @Scheduled(fixedDelayString = "${ecoms.order-expiry.interval:PT1M}",
+            initialDelayString = "${ecoms.order-expiry.interval:PT1M}")
+    public int expireStaleOrders() {
+        if (!enabled) {
+            return 0;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        int total = job.run(() -> orderBatchService.cancelExpired(cutoff, chunkSize),
+                () -> orderBatchRepository.countPendingBefore(cutoff));
+        if (total > 0) {
+            log.info("Cancelled {} PENDING orders older than {}, {} left", total, ttl, job.backlog());
+        }
+        return total;
+    }
+}
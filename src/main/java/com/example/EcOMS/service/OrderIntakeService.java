@@ -0,0 +1,233 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.BatchOrderResponse;
+import com.example.EcOMS.dto.BatchOrderResult;
+import com.example.EcOMS.dto.CreateOrderRequest;
+import com.example.EcOMS.dto.OrderIntakeStatus;
+import com.example.EcOMS.dto.OrderItemRequest;
+import com.example.EcOMS.enums.OrderIntakeState;
+import com.example.EcOMS.exceptionnn.InvalidOrderOperationException;
+import com.example.EcOMS.exceptionnn.OrderIntakeRejectedException;
+import com.example.EcOMS.exceptionnn.OrderNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous order intake, off unless {@code ecoms.order-intake.enabled} is set. Each shard
+ * is drained by exactly one worker. Requests are routed to a shard by their lowest product
+ * id, except that every cart containing one of the configured hot products
+ * ({@code ecoms.order-intake.hot-products}) goes to the same shard. Those products therefore
+ * have a single intake writer, and their row locks are taken once per micro-batch instead of
+ * once per request; enabling intake without naming any fails at startup.
+ *
+ * <p>Only the hot products get that guarantee. Any other product is written by the shard of
+ * every cart it appears in, and all products are also written by the synchronous order
+ * endpoints; for those, stock stays correct through the row locks alone. Queues are bounded;
+ * a full shard rejects new orders rather than growing without limit.
+ */
+@Service
+public class OrderIntakeService implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIntakeService.class);
+
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    private final OrderBatchService orderBatchService;
+    private final OrderService orderService;
+    private final int batchSize;
+    private final Duration shutdownTimeout;
+    private final List<BlockingQueue<IntakeTask>> queues = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final Set<Long> hotProducts;
+    private final int hotShard;
+    private final Cache<String, OrderIntakeStatus> statuses;
+    private final Counter rejectedCounter;
+    private final boolean enabled;
+    private volatile boolean running;
+
+    public OrderIntakeService(OrderBatchService orderBatchService,
+                              OrderService orderService,
+                              @Value("${ecoms.order-intake.enabled:false}") boolean enabled,
+                              @Value("${ecoms.order-intake.shards:4}") int shards,
+                              @Value("${ecoms.order-intake.queue-capacity:1000}") int queueCapacity,
+                              @Value("${ecoms.order-intake.batch-size:50}") int batchSize,
+                              @Value("${ecoms.order-intake.handle-ttl:PT1H}") Duration handleTtl,
+                              @Value("${ecoms.order-intake.shutdown-timeout:PT10S}") Duration shutdownTimeout,
+                              @Value("${ecoms.order-intake.status-maximum-size:100000}") long statusMaximumSize,
+                              @Value("${ecoms.order-intake.hot-products:}") Set<Long> hotProducts,
+                              MeterRegistry meterRegistry) {
+        if (shards < 1 || queueCapacity < 1 || batchSize < 1 || batchSize > OrderBatchService.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Invalid order intake configuration");
+        }
+        if (enabled && hotProducts.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "ecoms.order-intake.hot-products must list the products intake serializes");
+        }
+        this.enabled = enabled;
+        this.orderBatchService = orderBatchService;
+        this.orderService = orderService;
+        this.batchSize = batchSize;
+        this.shutdownTimeout = shutdownTimeout;
+        this.hotProducts = Set.copyOf(hotProducts);
+        this.hotShard = shardIndex(hotProducts.stream().mapToLong(Long::longValue).min().orElse(0), shards);
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(statusMaximumSize)
+                .expireAfterWrite(handleTtl)
+                .build();
+        this.rejectedCounter = Counter.builder("ecoms.order-intake.rejected")
+                .description("Orders refused because their intake shard was full")
+                .register(meterRegistry);
+
+        for (int i = 0; i < shards; i++) {
+            BlockingQueue<IntakeTask> queue = new ArrayBlockingQueue<>(queueCapacity);
+            queues.add(queue);
+            Gauge.builder("ecoms.order-intake.queue.depth", queue, BlockingQueue::size)
+                    .description("Orders waiting in an intake shard")
+                    .tag("shard", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < queues.size(); i++) {
+            BlockingQueue<IntakeTask> queue = queues.get(i);
+            workers.add(Thread.ofPlatform()
+                    .name("order-intake-" + i)
+                    .daemon(true)
+                    .start(() -> drain(queue)));
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        // Workers finish what is already queued before exiting
+        running = false;
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        for (Thread worker : workers) {
+            worker.join(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+        }
+    }
+
+    public OrderIntakeStatus submit(CreateOrderRequest request) {
+        if (request.getItems().stream().anyMatch(Objects::isNull)) {
+            throw new InvalidOrderOperationException("Order items cannot be null");
+        }
+        orderService.validateNoDuplicateProducts(request.getItems());
+
+        if (!enabled) {
+            throw new OrderIntakeRejectedException("Asynchronous order intake is disabled; use POST /api/orders");
+        }
+        if (!running) {
+            throw new OrderIntakeRejectedException("Order intake is not accepting orders");
+        }
+
+        String handle = UUID.randomUUID().toString();
+        OrderIntakeStatus status = new OrderIntakeStatus(
+                handle, OrderIntakeState.QUEUED, null, null, LocalDateTime.now(), null);
+        statuses.put(handle, status);
+
+        if (!shardFor(request).offer(new IntakeTask(handle, request, status.getQueuedAt()))) {
+            statuses.invalidate(handle);
+            rejectedCounter.increment();
+            throw new OrderIntakeRejectedException("Order intake queue is full, please retry later");
+        }
+        return status;
+    }
+
+    public OrderIntakeStatus getStatus(String handle) {
+        OrderIntakeStatus status = statuses.getIfPresent(handle);
+        if (status == null) {
+            throw new OrderNotFoundException("Order intake handle not found: " + handle);
+        }
+        return status;
+    }
+
+    private BlockingQueue<IntakeTask> shardFor(CreateOrderRequest request) {
+        if (request.getItems().stream().anyMatch(item -> hotProducts.contains(item.getProductId()))) {
+            return queues.get(hotShard);
+        }
+        long routingKey = request.getItems().stream()
+                .mapToLong(OrderItemRequest::getProductId)
+                .min()
+                .orElse(0);
+        return queues.get(shardIndex(routingKey, queues.size()));
+    }
+
+    private static int shardIndex(long productId, int shards) {
+        return Math.floorMod(Long.hashCode(productId), shards);
+    }
+
+    private void drain(BlockingQueue<IntakeTask> queue) {
+        List<IntakeTask> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                IntakeTask first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<IntakeTask> batch) {
+        BatchOrderResponse response;
+        try {
+            response = orderBatchService.createOrders(batch.stream().map(IntakeTask::request).toList());
+        } catch (RuntimeException e) {
+            log.error("Order intake batch of {} failed", batch.size(), e);
+            batch.forEach(task -> complete(task, OrderIntakeState.REJECTED, null,
+                    "Order could not be processed: " + e.getMessage()));
+            return;
+        }
+
+        for (BatchOrderResult result : response.getResults()) {
+            IntakeTask task = batch.get(result.getIndex());
+            if (result.isSuccess()) {
+                complete(task, OrderIntakeState.ACCEPTED, result.getOrder().getId(), null);
+            } else {
+                complete(task, OrderIntakeState.REJECTED, null, result.getError());
+            }
+        }
+    }
+
+    private void complete(IntakeTask task, OrderIntakeState state, Long orderId, String error) {
+        statuses.put(task.handle(), new OrderIntakeStatus(
+                task.handle(), state, orderId, error, task.queuedAt(), LocalDateTime.now()));
+    }
+
+    private record IntakeTask(String handle, CreateOrderRequest request, LocalDateTime queuedAt) {
+    }
+}
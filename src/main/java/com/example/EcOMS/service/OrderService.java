@@ -1,6 +1,7 @@
 package com.example.EcOMS.service;
 
 
+import com.example.EcOMS.config.ReadYourWritesTracker;
 import com.example.EcOMS.dto.*;
 import com.example.EcOMS.entity.Order;
 import com.example.EcOMS.entity.OrderItem;
@@ -8,101 +9,118 @@ import com.example.EcOMS.entity.OrderItem;
 import com.example.EcOMS.entity.Product;
 
 import com.example.EcOMS.enums.OrderStatus;
+import com.example.EcOMS.enums.ProductChangeType;
 import com.example.EcOMS.exceptionnn.*;
+import com.example.EcOMS.metrics.InventoryMetrics;
+import com.example.EcOMS.repository.OrderArchiveRepository;
+import com.example.EcOMS.repository.OrderBatchRepository;
+import com.example.EcOMS.repository.OrderProjectionRepository;
 import com.example.EcOMS.repository.OrderRepository;
-import com.example.EcOMS.repository.ProductRepository;
+import com.example.EcOMS.repository.ProductChangeRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
     private final OrderRepository orderRepository;
-    private final ProductRepository productRepository;
+    private final OrderProjectionRepository orderProjectionRepository;
+    private final OrderBatchRepository orderBatchRepository;
+    private final InventoryService inventoryService;
+    private final InventoryMetrics inventoryMetrics;
+    private final SalesStatisticsService salesStatisticsService;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final ReadYourWritesTracker readYourWrites;
+    private final ProductChangeRepository productChangeRepository;
+
+    @Transactional(readOnly = true)
+    public PageResponse<OrderDTO> getAllOrders(int page, int size) {
+        if (page < 0) {
+            throw new InvalidOrderOperationException("Page number cannot be negative");
+        }
+        if (size <= 0 || size > 100) {
+            throw new InvalidOrderOperationException("Page size must be between 1 and 100");
+        }
 
-    public List<OrderDTO> getAllOrders() {
-        return orderRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        // Page over ids first; paging a fetch join would be applied in memory
+        Page<Long> idPage = orderRepository.findPageOfIds(
+                PageRequest.of(page, size, Sort.by("id").descending()));
+        return convertToPageResponse(idPage);
+    }
+
+    /**
+     * Streams every order to {@code consumer} in id order. Orders are read in chunks of
+     * {@value #EXPORT_CHUNK_SIZE} by id range, and each chunk is detached before the next
+     * is read, so memory use does not depend on the size of the table.
+     */
+    public void exportOrders(Consumer<OrderDTO> consumer) {
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = orderRepository.findIdsAfter(afterId, Limit.of(EXPORT_CHUNK_SIZE));
+            if (ids.isEmpty()) {
+                break;
+            }
+            loadOrderDTOs(ids).forEach(consumer);
+            afterId = ids.get(ids.size() - 1);
+        } while (ids.size() == EXPORT_CHUNK_SIZE);
     }
 
+    @Transactional(readOnly = true)
     public OrderDTO getOrderById(Long id) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + id));
-        return convertToDTO(order);
+        readYourWrites.usePrimaryForOrder(id);
+        List<OrderDTO> orders = loadOrderDTOs(List.of(id));
+        if (orders.isEmpty()) {
+            orders = toOrderDTOs(orderArchiveRepository.findRowsByOrderIdIn(List.of(id)), List.of(id));
+        }
+        if (orders.isEmpty()) {
+            throw new OrderNotFoundException("Order not found with id: " + id);
+        }
+        return orders.get(0);
     }
 
     @Transactional
     public OrderDTO createOrder(CreateOrderRequest request) {
         validateNoDuplicateProducts(request.getItems());
 
-        Order order = new Order();
-        order.setCustomerEmail(request.getCustomerEmail());
-        order.setCustomerName(request.getCustomerName());
-        order.setCustomerPhone(request.getCustomerPhone());
-        order.setOrderStatus(OrderStatus.PENDING);
-
-        BigDecimal totalAmount = BigDecimal.ZERO;
-
-        for (OrderItemRequest itemRequest : request.getItems()) {
-            Product product = productRepository.findById(itemRequest.getProductId())
-                    .orElseThrow(() -> new ProductNotFoundException(
-                            "Product not found with id: " + itemRequest.getProductId()));
-
-            if (product.getIsActive() == null || !product.getIsActive()) {
-                throw new InvalidOrderOperationException(
-                        "Product is not available: " + product.getName());
-            }
+        Map<Long, Product> products = inventoryService.loadProducts(request.getItems().stream()
+                .map(OrderItemRequest::getProductId)
+                .toList());
 
-            if (product.getStock() <= 0) {
-                throw new InsufficientStockException(
-                        "Product is out of stock: " + product.getName());
-            }
+        Order order = buildOrder(request, products);
+        inventoryService.reserve(order.getOrderItems());
+        productChangeRepository.insertSnapshots(products.keySet(), ProductChangeType.STOCK);
 
-            if (product.getStock() < itemRequest.getQuantity()) {
-                throw new InsufficientStockException(
-                        String.format("Insufficient stock for product: %s. Available: %d, Requested: %d",
-                                product.getName(), product.getStock(), itemRequest.getQuantity()));
-            }
-
-            OrderItem orderItem = new OrderItem();
-            orderItem.setOrder(order);
-            orderItem.setProduct(product);
-            orderItem.setQuantity(itemRequest.getQuantity());
-            orderItem.setUnitPrice(product.getPrice());
-
-            BigDecimal subtotal = product.getPrice()
-                    .multiply(new BigDecimal(itemRequest.getQuantity()));
-            orderItem.setTotalPrice(subtotal);
-            totalAmount = totalAmount.add(subtotal);
-
-            order.getOrderItems().add(orderItem);
-
-            product.setStock(product.getStock() - itemRequest.getQuantity());
-            productRepository.save(product);
-        }
-
-        if (totalAmount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new InvalidOrderOperationException("Order total amount must be greater than zero");
-        }
-
-        order.setTotalAmount(totalAmount);
-        Order savedOrder = orderRepository.save(order);
-        return convertToDTO(savedOrder);
+        // IDENTITY ids keep Hibernate from batching the item inserts
+        orderBatchRepository.insertAll(List.of(order));
+        salesStatisticsService.recordCreated(List.of(order));
+        readYourWrites.recordOrders(List.of(order));
+        return convertToDTO(order);
     }
 
     @Transactional
     public OrderDTO updateOrderStatus(Long id, UpdateOrderStatusRequest request) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + id));
+        // Locked so a concurrent cancellation or the expiry reaper cannot restore its stock twice
+        Order order = orderRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> orderNotFound(id));
 
         if (order.getOrderStatus() != OrderStatus.PENDING) {
             throw new InvalidOrderOperationException(
@@ -110,18 +128,22 @@ public class OrderService {
         }
 
         if (request.getStatus() == OrderStatus.CANCELLED) {
-            restoreStock(order);
+            // Loaded after the restore, in one query, for the response's item names
+            inventoryService.loadProducts(restoreStock(order));
         }
 
+        OrderStatus previousStatus = order.getOrderStatus();
         order.setOrderStatus(request.getStatus());
         Order updatedOrder = orderRepository.save(order);
+        salesStatisticsService.recordStatusChange(updatedOrder, previousStatus);
+        readYourWrites.recordOrderIds(List.of(id));
         return convertToDTO(updatedOrder);
     }
 
     @Transactional
     public void deleteOrder(Long id) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + id));
+        Order order = orderRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> orderNotFound(id));
 
         if (order.getOrderStatus() != OrderStatus.PENDING && order.getOrderStatus() != OrderStatus.CANCELLED) {
             throw new InvalidOrderOperationException(
@@ -132,40 +154,174 @@ public class OrderService {
             restoreStock(order);
         }
 
+        salesStatisticsService.recordDeleted(order);
         orderRepository.delete(order);
+        readYourWrites.recordOrderIds(List.of(id));
     }
 
-    public List<OrderDTO> getOrdersByCustomerEmail(String email) {
-        List<Order> orders = orderRepository.findByCustomerEmail(email);
-        if (orders.isEmpty()) {
+    @Transactional(readOnly = true)
+    public PageResponse<OrderDTO> getOrdersByCustomerEmail(String email, int page, int size) {
+        if (page < 0) {
+            throw new InvalidOrderOperationException("Page number cannot be negative");
+        }
+        if (size <= 0 || size > 100) {
+            throw new InvalidOrderOperationException("Page size must be between 1 and 100");
+        }
+
+        readYourWrites.usePrimaryForCustomer(email);
+        long total = orderArchiveRepository.countHistoryByCustomerEmail(email);
+        if (total == 0) {
             throw new OrderNotFoundException("No orders found for email: " + email);
         }
-        return orders.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+
+        // Live and archived orders come back interleaved by placed_at; each kind loads in one query
+        List<OrderArchiveRepository.HistoryEntry> entries =
+                orderArchiveRepository.findHistoryByCustomerEmail(email, (long) page * size, size);
+        List<Long> liveIds = entries.stream().filter(entry -> !entry.archived())
+                .map(OrderArchiveRepository.HistoryEntry::id).toList();
+        List<Long> archivedIds = entries.stream().filter(OrderArchiveRepository.HistoryEntry::archived)
+                .map(OrderArchiveRepository.HistoryEntry::id).toList();
+        Map<Long, OrderDTO> byId = new HashMap<>();
+        loadOrderDTOs(liveIds).forEach(dto -> byId.put(dto.getId(), dto));
+        if (!archivedIds.isEmpty()) {
+            toOrderDTOs(orderArchiveRepository.findRowsByOrderIdIn(archivedIds), archivedIds)
+                    .forEach(dto -> byId.put(dto.getId(), dto));
+        }
+        List<OrderDTO> content = entries.stream().map(entry -> byId.get(entry.id())).toList();
+
+        PageResponse<OrderDTO> response = new PageResponse<>();
+        response.setContent(content);
+        response.setPageNumber(page);
+        response.setPageSize(size);
+        response.setTotalElements(total);
+        response.setTotalPages((int) Math.ceil((double) total / size));
+        response.setLast((long) (page + 1) * size >= total);
+        return response;
+    }
+
+
+
+    private PageResponse<OrderDTO> convertToPageResponse(Page<Long> idPage) {
+        PageResponse<OrderDTO> response = new PageResponse<>();
+        response.setContent(loadOrderDTOs(idPage.getContent()));
+        response.setPageNumber(idPage.getNumber());
+        response.setPageSize(idPage.getSize());
+        response.setTotalElements(idPage.getTotalElements());
+        response.setTotalPages(idPage.getTotalPages());
+        response.setLast(idPage.isLast());
+        return response;
+    }
+
+    /**
+     * Loads the orders with the given ids as DTOs, in the order of {@code ids}, from one
+     * projection query whose rows are grouped back into orders.
+     */
+    List<OrderDTO> loadOrderDTOs(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return toOrderDTOs(orderProjectionRepository.findRowsByOrderIdIn(ids), ids);
+    }
+
+    private static List<OrderDTO> toOrderDTOs(List<OrderRow> rows, List<Long> ids) {
+        Map<Long, OrderDTO> byId = new HashMap<>(ids.size() * 2);
+        for (OrderRow row : rows) {
+            OrderDTO dto = byId.get(row.getOrderId());
+            if (dto == null) {
+                dto = new OrderDTO();
+                dto.setId(row.getOrderId());
+                dto.setCustomerEmail(row.getCustomerEmail());
+                dto.setCustomerName(row.getCustomerName());
+                dto.setCustomerPhone(row.getCustomerPhone());
+                dto.setTotalPrice(row.getTotalAmount());
+                dto.setOrderStatus(row.getOrderStatus());
+                dto.setOrderItems(new ArrayList<>());
+                byId.put(row.getOrderId(), dto);
+            }
+            if (row.getProductId() != null) {
+                dto.getOrderItems().add(new OrderItemDTO(row.getProductId(), row.getProductName(),
+                        row.getQuantity(), row.getUnitPrice(), row.getTotalPrice()));
+            }
+        }
+
+        List<OrderDTO> orders = new ArrayList<>(byId.size());
+        for (Long id : ids) {
+            OrderDTO dto = byId.get(id);
+            if (dto != null) {
+                orders.add(dto);
+            }
+        }
+        return orders;
     }
 
+    Order buildOrder(CreateOrderRequest request, Map<Long, Product> products) {
+        Order order = new Order();
+        order.setCustomerEmail(request.getCustomerEmail());
+        order.setCustomerName(request.getCustomerName());
+        order.setCustomerPhone(request.getCustomerPhone());
+        order.setOrderStatus(OrderStatus.PENDING);
+
+        BigDecimal totalAmount = BigDecimal.ZERO;
 
+        for (OrderItemRequest itemRequest : request.getItems()) {
+            Product product = products.get(itemRequest.getProductId());
+            if (product == null) {
+                throw new ProductNotFoundException(
+                        "Product not found with id: " + itemRequest.getProductId());
+            }
 
-    private void validateNoDuplicateProducts(List<OrderItemRequest> items) {
+            if (product.getIsActive() == null || !product.getIsActive()) {
+                throw new InvalidOrderOperationException(
+                        "Product is not available: " + product.getName());
+            }
+
+            OrderItem orderItem = new OrderItem();
+            orderItem.setOrder(order);
+            orderItem.setProduct(product);
+            orderItem.setQuantity(itemRequest.getQuantity());
+            orderItem.setUnitPrice(product.getPrice());
+
+            BigDecimal subtotal = product.getPrice()
+                    .multiply(new BigDecimal(itemRequest.getQuantity()));
+            orderItem.setTotalPrice(subtotal);
+            totalAmount = totalAmount.add(subtotal);
+
+            order.getOrderItems().add(orderItem);
+        }
+
+        if (totalAmount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new InvalidOrderOperationException("Order total amount must be greater than zero");
+        }
+
+        order.setTotalAmount(totalAmount);
+        return order;
+    }
+
+    void validateNoDuplicateProducts(List<OrderItemRequest> items) {
         Set<Long> productIds = new HashSet<>();
         for (OrderItemRequest item : items) {
             if (!productIds.add(item.getProductId())) {
+                inventoryMetrics.duplicateProduct();
                 throw new DuplicateProductInOrderException(
                         "Duplicate product found in order. Product ID: " + item.getProductId());
             }
         }
     }
 
-    private void restoreStock(Order order) {
-        for (OrderItem item : order.getOrderItems()) {
-            Product product = item.getProduct();
-            product.setStock(product.getStock() + item.getQuantity());
-            productRepository.save(product);
+    private RuntimeException orderNotFound(Long id) {
+        if (orderArchiveRepository.existsById(id)) {
+            return new InvalidOrderOperationException("Order " + id + " is archived and can no longer be changed");
         }
+        return new OrderNotFoundException("Order not found with id: " + id);
+    }
+
+    private List<Long> restoreStock(Order order) {
+        List<Long> restored = inventoryService.release(order.getOrderItems());
+        productChangeRepository.insertSnapshots(restored, ProductChangeType.STOCK);
+        return restored;
     }
 
-    private OrderDTO convertToDTO(Order order) {
+    OrderDTO convertToDTO(Order order) {
         OrderDTO dto = new OrderDTO();
         dto.setId(order.getId());
         dto.setCustomerEmail(order.getCustomerEmail());
@@ -0,0 +1,106 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.config.ReadYourWritesTracker;
+import com.example.EcOMS.config.ReplicationRoutingDataSource;
+import com.example.EcOMS.dto.ProductDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of product snapshots. Writers evict the affected ids right away
+ * and again once their transaction completes, so a read that raced the write cannot leave
+ * a stale entry behind. Entries are always loaded from the primary: a write made on another
+ * node is not in this node's read-your-writes window, and a lagging replica's row would
+ * otherwise be served for the whole TTL.
+ */
+@Component
+public class ProductCache {
+
+    private final Cache<Long, ProductDTO> cache;
+    private final ReadYourWritesTracker readYourWrites;
+
+    public ProductCache(@Value("${ecoms.product-cache.maximum-size:10000}") long maximumSize,
+                        @Value("${ecoms.product-cache.ttl:PT10M}") Duration ttl,
+                        MeterRegistry meterRegistry,
+                        ReadYourWritesTracker readYourWrites) {
+        this.readYourWrites = readYourWrites;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+        Gauge.builder("ecoms.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of lookups served from the cache")
+                .tag("cache", "products")
+                .register(meterRegistry);
+    }
+
+    public ProductDTO get(Long id, Function<Long, ProductDTO> loader) {
+        return cache.get(id, key -> {
+            ReplicationRoutingDataSource.pinToPrimary();
+            return loader.apply(key);
+        });
+    }
+
+    public ProductDTO getIfPresent(Long id) {
+        return cache.getIfPresent(id);
+    }
+
+    public void put(ProductDTO product) {
+        cache.put(product.getId(), product);
+    }
+
+    public void putAfterCommit(ProductDTO product) {
+        readYourWrites.recordProductIds(List.of(product.getId()));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(product);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(product);
+            }
+        });
+    }
+
+    public void evict(Long id) {
+        evict(List.of(id));
+    }
+
+    public void evict(Collection<Long> ids) {
+        readYourWrites.recordProductIds(ids);
+        cache.invalidateAll(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> copy = List.copyOf(ids);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidateAll(copy);
+                }
+            });
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
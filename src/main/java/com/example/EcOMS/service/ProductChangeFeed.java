@@ -0,0 +1,385 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.ProductChangeEvent;
+import com.example.EcOMS.repository.ProductChangeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Relays the {@code product_changes} outbox to subscribers of the change feed. Every
+ * {@code ecoms.product-feed.poll-interval} the relay reads the rows after its watermark and
+ * sends each product's latest change among them, so a burst of changes to one product
+ * reaches clients once. Outbox ids are assigned when rows are inserted, not when they
+ * commit, so an id missing below a committed one may still be in flight. The relay moves
+ * past it and keeps the id in a pending set that is re-checked on every run: a row that
+ * commits late is sent then, out of id order, and an id still missing after
+ * {@code ecoms.product-feed.gap-timeout} is taken to be rolled back and forgotten.
+ *
+ * <p>Every change goes out with a resume position, the id a reconnecting client should
+ * resume after. It is the change's id, but never at or above a pending id, so a client that
+ * disconnects while a row is in flight is replayed that row once it commits. Changes around
+ * such a gap may then be sent twice.
+ *
+ * <p>A subscriber resuming from an id first gets the latest change of every product changed
+ * since then, read from the outbox, and then the live changes. One whose id predates the
+ * retained outbox is told to reload instead.
+ *
+ * <p>Each subscriber has a queue of {@code ecoms.product-feed.subscriber-queue-size} relay
+ * runs, drained on the feed executor, so the relay never waits for a client's socket. A
+ * subscriber whose queue overflows is dropped and resumes from its last id on reconnect.
+ */
+@Service
+public class ProductChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeFeed.class);
+
+    private static final Delivery HEARTBEAT = new Delivery(List.of(), List.of(), Long.MAX_VALUE);
+
+    private final ProductChangeRepository productChangeRepository;
+    private final int batchSize;
+    private final int replayBatchSize;
+    private final Duration gapTimeout;
+    private final Duration heartbeatInterval;
+    private final Duration retention;
+    private final int subscriberQueueSize;
+    private final int maxPendingGaps;
+    private final Executor executor;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private volatile long watermark = -1;
+    // Missing outbox ids below the watermark, with the System.nanoTime() they were first missed
+    private final NavigableMap<Long, Long> pendingGaps = new TreeMap<>();
+    private long lastHeartbeat = System.nanoTime();
+
+    public ProductChangeFeed(ProductChangeRepository productChangeRepository,
+                             @Value("${ecoms.product-feed.batch-size:1000}") int batchSize,
+                             @Value("${ecoms.product-feed.replay-batch-size:1000}") int replayBatchSize,
+                             @Value("${ecoms.product-feed.gap-timeout:PT1M}") Duration gapTimeout,
+                             @Value("${ecoms.product-feed.heartbeat-interval:PT15S}") Duration heartbeatInterval,
+                             @Value("${ecoms.product-feed.retention:P1D}") Duration retention,
+                             @Value("${ecoms.product-feed.subscriber-queue-size:100}") int subscriberQueueSize,
+                             @Value("${ecoms.product-feed.max-pending-gaps:10000}") int maxPendingGaps,
+                             @Qualifier("productFeedExecutor") Executor executor) {
+        this.productChangeRepository = productChangeRepository;
+        this.batchSize = batchSize;
+        this.replayBatchSize = replayBatchSize;
+        this.gapTimeout = gapTimeout;
+        this.heartbeatInterval = heartbeatInterval;
+        this.retention = retention;
+        this.subscriberQueueSize = subscriberQueueSize;
+        this.maxPendingGaps = maxPendingGaps;
+        this.executor = executor;
+    }
+
+    /**
+     * Receives the feed of one subscriber. Calls come from one thread at a time; an
+     * {@link IOException} ends the subscription.
+     */
+    public interface Listener {
+
+        /**
+         * The latest change of a product. A client resuming after {@code resumeFrom} misses
+         * nothing sent before this change; positions never decrease.
+         */
+        void onChange(ProductChangeEvent change, long resumeFrom) throws IOException;
+
+        /**
+         * The changes since the requested id are no longer retained. The client should
+         * reload the products; the feed continues after {@code resumeFrom}.
+         */
+        void onReset(long resumeFrom) throws IOException;
+
+        void onHeartbeat() throws IOException;
+
+        /**
+         * The subscriber fell too far behind and was dropped. The client should reconnect
+         * from the last position it received.
+         */
+        void onDropped();
+    }
+
+    public interface Subscription extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    /**
+     * Subscribes to changes after {@code afterId}, or to new changes only when it is
+     * {@code null}. The replay is sent on the calling thread before this returns.
+     */
+    public Subscription subscribe(Long afterId, Listener listener) {
+        // Registered before the watermark is read, so nothing relayed in between is missed
+        Subscriber subscriber = new Subscriber(listener);
+        subscribers.add(subscriber);
+        long upTo = currentWatermark();
+        long safePosition = safePosition();
+        subscriber.lastId = afterId != null ? afterId : upTo;
+        try {
+            if (afterId != null && afterId < upTo) {
+                replay(subscriber, afterId, upTo, safePosition);
+            }
+            subscriber.finishReplay();
+        } catch (IOException e) {
+            subscriber.close();
+        }
+        return subscriber;
+    }
+
+    /**
+     * Publishes the outbox rows committed since the last run, along with pending ids that
+     * have committed since. Returns the number of changes sent, after coalescing.
+     */
+    @Scheduled(fixedDelayString = "${ecoms.product-feed.poll-interval:PT0.5S}")
+    public synchronized int relay() {
+        long from = currentWatermark();
+        List<ProductChangeEvent> rows;
+        List<ProductChangeEvent> late;
+        try {
+            rows = productChangeRepository.findAfter(from, batchSize);
+            long now = System.nanoTime();
+            long next = from;
+            for (ProductChangeEvent row : rows) {
+                for (long missing = next + 1; missing < row.getId(); missing++) {
+                    addPendingGap(missing, now);
+                }
+                next = row.getId();
+            }
+            watermark = next;
+            // Checked after the scan: a row that committed before any row it returned is
+            // found here, so a late change never follows a newer one of the same product
+            late = recheckPendingGaps(now);
+        } catch (DataAccessException e) {
+            log.warn("Product change relay failed, will retry on the next run", e);
+            return 0;
+        }
+
+        Set<Long> lateIds = late.stream().map(ProductChangeEvent::getId).collect(Collectors.toSet());
+        List<ProductChangeEvent> changes = coalesce(late.isEmpty() ? rows : merge(late, rows));
+        if (!changes.isEmpty()) {
+            Map<Boolean, List<ProductChangeEvent>> byLateness = changes.stream()
+                    .collect(Collectors.partitioningBy(change -> lateIds.contains(change.getId())));
+            Delivery delivery = new Delivery(byLateness.get(true), byLateness.get(false), safePosition());
+            subscribers.forEach(subscriber -> subscriber.enqueue(delivery));
+            lastHeartbeat = System.nanoTime();
+        } else if (System.nanoTime() - lastHeartbeat >= heartbeatInterval.toNanos()) {
+            subscribers.forEach(subscriber -> subscriber.enqueue(HEARTBEAT));
+            lastHeartbeat = System.nanoTime();
+        }
+        return changes.size();
+    }
+
+    @Scheduled(fixedDelayString = "${ecoms.product-feed.purge-interval:PT1H}",
+            initialDelayString = "${ecoms.product-feed.purge-interval:PT1H}")
+    public int purge() {
+        int deleted = productChangeRepository.deleteBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Purged {} product changes older than {}", deleted, retention);
+        }
+        return deleted;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    public synchronized int pendingGapCount() {
+        return pendingGaps.size();
+    }
+
+    private void replay(Subscriber subscriber, long afterId, long upTo, long safePosition) throws IOException {
+        Long oldest = productChangeRepository.findMinId();
+        if (oldest != null && afterId + 1 < oldest) {
+            subscriber.reset(Math.min(upTo, safePosition));
+            return;
+        }
+        long from = afterId;
+        List<ProductChangeEvent> page;
+        do {
+            page = productChangeRepository.findLatestPerProduct(from, upTo, replayBatchSize);
+            subscriber.send(page, safePosition);
+            if (!page.isEmpty()) {
+                from = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == replayBatchSize);
+    }
+
+    /**
+     * Highest position a client can resume from without skipping a pending id.
+     */
+    private synchronized long safePosition() {
+        return pendingGaps.isEmpty() ? Long.MAX_VALUE : pendingGaps.firstKey() - 1;
+    }
+
+    private long currentWatermark() {
+        if (watermark < 0) {
+            synchronized (this) {
+                if (watermark < 0) {
+                    watermark = productChangeRepository.findMaxId();
+                }
+            }
+        }
+        return watermark;
+    }
+
+    private void addPendingGap(long id, long now) {
+        if (pendingGaps.size() >= maxPendingGaps) {
+            Map.Entry<Long, Long> dropped = pendingGaps.pollFirstEntry();
+            log.warn("More than {} outbox ids pending, no longer waiting for id {}", maxPendingGaps, dropped.getKey());
+        }
+        pendingGaps.put(id, now);
+    }
+
+    private List<ProductChangeEvent> recheckPendingGaps(long now) {
+        if (pendingGaps.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = List.copyOf(pendingGaps.keySet());
+        List<ProductChangeEvent> found = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += batchSize) {
+            found.addAll(productChangeRepository.findByIds(ids.subList(i, Math.min(ids.size(), i + batchSize))));
+        }
+        found.forEach(row -> pendingGaps.remove(row.getId()));
+        // Outlived any transaction that could still commit it: the insert was rolled back
+        pendingGaps.values().removeIf(since -> now - since >= gapTimeout.toNanos());
+        return found;
+    }
+
+    private static List<ProductChangeEvent> merge(List<ProductChangeEvent> late, List<ProductChangeEvent> rows) {
+        List<ProductChangeEvent> merged = new ArrayList<>(late.size() + rows.size());
+        merged.addAll(late);
+        merged.addAll(rows);
+        merged.sort(Comparator.comparing(ProductChangeEvent::getId));
+        return merged;
+    }
+
+    private static List<ProductChangeEvent> coalesce(List<ProductChangeEvent> rows) {
+        Map<Long, ProductChangeEvent> latest = new LinkedHashMap<>();
+        rows.forEach(row -> latest.put(row.getProductId(), row));
+        List<ProductChangeEvent> changes = new ArrayList<>(latest.values());
+        changes.sort(Comparator.comparing(ProductChangeEvent::getId));
+        return changes;
+    }
+
+    /**
+     * What one relay run sends to every subscriber; the same instance is shared by all of them.
+     */
+    private record Delivery(List<ProductChangeEvent> late, List<ProductChangeEvent> changes, long safePosition) {
+    }
+
+    /**
+     * Deliveries are queued while the replay runs and drained after it, so the listener
+     * sees live ids in order and each change once. At most one drain per subscriber runs at
+     * a time.
+     */
+    private final class Subscriber implements Subscription {
+
+        private final Listener listener;
+        private final BlockingQueue<Delivery> queue = new ArrayBlockingQueue<>(subscriberQueueSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean replaying = true;
+        private volatile boolean closed;
+        // Written by the replay and then by one drain at a time, handed over through draining
+        private long lastId;
+
+        Subscriber(Listener listener) {
+            this.listener = listener;
+        }
+
+        void enqueue(Delivery delivery) {
+            if (closed || (delivery == HEARTBEAT && !queue.isEmpty())) {
+                return;
+            }
+            if (!queue.offer(delivery)) {
+                log.info("Dropping a change feed subscriber {} relay runs behind", subscriberQueueSize);
+                close();
+                executor.execute(listener::onDropped);
+                return;
+            }
+            scheduleDrain();
+        }
+
+        void finishReplay() {
+            replaying = false;
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!replaying && !closed && !queue.isEmpty() && draining.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Delivery delivery;
+                while (!closed && (delivery = queue.poll()) != null) {
+                    if (delivery == HEARTBEAT) {
+                        listener.onHeartbeat();
+                    } else {
+                        sendLate(delivery.late(), delivery.safePosition());
+                        send(delivery.changes(), delivery.safePosition());
+                    }
+                }
+            } catch (IOException e) {
+                close();
+            } finally {
+                draining.set(false);
+            }
+            // A delivery queued after the last poll but before the flag was cleared
+            scheduleDrain();
+        }
+
+        void send(List<ProductChangeEvent> changes, long safePosition) throws IOException {
+            for (ProductChangeEvent change : changes) {
+                if (change.getId() > lastId && !closed) {
+                    listener.onChange(change, Math.min(change.getId(), safePosition));
+                    lastId = change.getId();
+                }
+            }
+        }
+
+        // Below lastId, so not filtered by it
+        private void sendLate(List<ProductChangeEvent> changes, long safePosition) throws IOException {
+            for (ProductChangeEvent change : changes) {
+                if (!closed) {
+                    listener.onChange(change, Math.min(change.getId(), safePosition));
+                }
+            }
+        }
+
+        void reset(long resumeFrom) throws IOException {
+            listener.onReset(resumeFrom);
+            lastId = resumeFrom;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+    }
+}
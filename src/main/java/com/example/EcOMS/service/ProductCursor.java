@@ -0,0 +1,124 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.exceptionnn.InvalidOrderOperationException;
+import jakarta.persistence.criteria.Path;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Opaque keyset cursor for product listings. The token carries the sort field, direction,
+ * the last row's sort value and its id, which becomes a seek predicate in place of an
+ * OFFSET. Criteria queries cannot express the row-value comparison
+ * {@code (key, id) > (value, lastId)}, so it is spelled out as
+ * {@code key >= value AND (key > value OR id > lastId)}: the redundant leading bound lets
+ * the database start a range scan of the {@code (key, id)} index at the cursor instead of
+ * filtering the index from its first entry.
+ */
+final class ProductCursor {
+
+    static final Set<String> SORT_FIELDS = Set.of("id", "name", "price", "stock");
+
+    private final String sortBy;
+    private final Sort.Direction direction;
+    private final String value;
+    private final long id;
+
+    private ProductCursor(String sortBy, Sort.Direction direction, String value, long id) {
+        this.sortBy = sortBy;
+        this.direction = direction;
+        this.value = value;
+        this.id = id;
+    }
+
+    static void validateSort(String sortBy) {
+        if (!SORT_FIELDS.contains(sortBy)) {
+            throw new InvalidOrderOperationException(
+                    "Cursor pagination supports sorting by " + String.join(", ", SORT_FIELDS.stream().sorted().toList()));
+        }
+    }
+
+    static Sort sort(String sortBy, Sort.Direction direction) {
+        Sort sort = Sort.by(direction, sortBy);
+        return sortBy.equals("id") ? sort : sort.and(Sort.by(direction, "id"));
+    }
+
+    static String encode(Product last, String sortBy, Sort.Direction direction) {
+        String raw = sortBy + "\n" + direction.name() + "\n" + last.getId() + "\n" + sortValue(last, sortBy);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ProductCursor decode(String token, String sortBy, Sort.Direction direction) {
+        String[] parts;
+        long id;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\n", 4);
+            id = Long.parseLong(parts[2]);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidOrderOperationException("Invalid cursor");
+        }
+        if (parts.length != 4 || !parts[0].equals(sortBy) || !parts[1].equals(direction.name())) {
+            throw new InvalidOrderOperationException("Cursor does not match the requested sort");
+        }
+        return new ProductCursor(parts[0], direction, parts[3], id);
+    }
+
+    Specification<Product> seek() {
+        return (root, query, cb) -> {
+            boolean asc = direction.isAscending();
+            Path<Long> idPath = root.get("id");
+            if (sortBy.equals("id")) {
+                return asc ? cb.greaterThan(idPath, id) : cb.lessThan(idPath, id);
+            }
+            Path<Comparable<Object>> key = root.get(sortBy);
+            Comparable<Object> keyValue = parseValue();
+            return cb.and(
+                    asc ? cb.greaterThanOrEqualTo(key, keyValue) : cb.lessThanOrEqualTo(key, keyValue),
+                    cb.or(asc ? cb.greaterThan(key, keyValue) : cb.lessThan(key, keyValue),
+                            asc ? cb.greaterThan(idPath, id) : cb.lessThan(idPath, id)));
+        };
+    }
+
+    /**
+     * The cursor position as a search index entry, holding only the id and the sort value,
+     * for {@link ProductSearchIndex#search} to continue after.
+     */
+    ProductSearchIndex.Entry indexPosition() {
+        return switch (sortBy) {
+            case "name" -> new ProductSearchIndex.Entry(id, value, null, null, null);
+            case "price" -> new ProductSearchIndex.Entry(id, null, null, (BigDecimal) typedValue(), null);
+            default -> new ProductSearchIndex.Entry(id, null, null, null, null);
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private Comparable<Object> parseValue() {
+        return (Comparable<Object>) typedValue();
+    }
+
+    private Comparable<?> typedValue() {
+        try {
+            return switch (sortBy) {
+                case "price" -> new BigDecimal(value);
+                case "stock" -> Integer.valueOf(value);
+                default -> value;
+            };
+        } catch (NumberFormatException e) {
+            throw new InvalidOrderOperationException("Invalid cursor");
+        }
+    }
+
+    private static String sortValue(Product product, String sortBy) {
+        return switch (sortBy) {
+            case "name" -> product.getName();
+            case "price" -> product.getPrice().toPlainString();
+            case "stock" -> String.valueOf(product.getStock());
+            default -> String.valueOf(product.getId());
+        };
+    }
+}
@@ -0,0 +1,366 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.CreateProductRequest;
+import com.example.EcOMS.dto.ProductImportError;
+import com.example.EcOMS.dto.ProductImportResponse;
+import com.example.EcOMS.dto.ProductImportRow;
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.enums.ProductChangeType;
+import com.example.EcOMS.enums.ProductImportFormat;
+import com.example.EcOMS.exceptionnn.InvalidOrderOperationException;
+import com.example.EcOMS.repository.ProductBatchRepository;
+import com.example.EcOMS.repository.ProductChangeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product import from a CSV or NDJSON stream. Rows are read one at a time, validated
+ * with the same rules as {@code POST /api/products} and written in JDBC batches of
+ * {@code ecoms.product-import.batch-size}, each batch in its own transaction, so memory use
+ * does not depend on the size of the upload. Rows that fail validation or refer to an
+ * unknown id are reported by line number and skipped; the rest of the import continues.
+ * If the database rejects a batch, its rows are retried one at a time so that only the
+ * offending rows fail.
+ * <p>
+ * An update overwrites the stored stock with the imported value. Rows that carry the
+ * {@code version} they were exported at are only written while the product still has that
+ * version, so a reservation made since the export is reported as a conflict instead of
+ * being overwritten; rows without a version overwrite unconditionally.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Set<String> CSV_COLUMNS = Set.of("id", "version", "name", "price", "stock", "category",
+            "isactive");
+
+    private final ProductService productService;
+    private final ProductBatchRepository productBatchRepository;
+    private final ProductChangeRepository productChangeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxErrors;
+
+    public ProductImportService(ProductService productService,
+                                ProductBatchRepository productBatchRepository,
+                                ProductChangeRepository productChangeRepository,
+                                TransactionTemplate transactionTemplate,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                @Value("${ecoms.product-import.batch-size:1000}") int batchSize,
+                                @Value("${ecoms.product-import.max-errors:1000}") int maxErrors) {
+        this.productService = productService;
+        this.productBatchRepository = productBatchRepository;
+        this.productChangeRepository = productChangeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public ProductImportResponse importProducts(InputStream input, ProductImportFormat format) {
+        Report report = new Report();
+        List<Line> batch = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            RowParser parser = format == ProductImportFormat.CSV ? csvParser(reader) : this::parseJson;
+            long lineNumber = format == ProductImportFormat.CSV ? 1 : 0;
+            String text;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                report.rows++;
+
+                ProductImportRow row;
+                Product product;
+                try {
+                    row = parser.parse(text);
+                    product = toProduct(row);
+                } catch (InvalidOrderOperationException e) {
+                    report.fail(lineNumber, e.getMessage());
+                    continue;
+                }
+                batch.add(new Line(lineNumber, product, row.getVersion()));
+                if (batch.size() == batchSize) {
+                    write(batch, report);
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        write(batch, report);
+
+        return new ProductImportResponse(report.rows, report.inserted, report.updated, report.failed,
+                report.errors, report.failed > report.errors.size());
+    }
+
+    private void write(List<Line> batch, Report report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            writeBatch(batch, report);
+        } catch (DataAccessException e) {
+            if (batch.size() == 1) {
+                report.fail(batch.get(0).number(), "Write failed: "
+                        + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                return;
+            }
+            // One bad row rolls back the whole batch; write the rows one at a time so only it fails
+            batch.forEach(line -> write(List.of(line), report));
+        }
+    }
+
+    private void writeBatch(List<Line> batch, Report report) {
+        List<Product> inserts = new ArrayList<>();
+        List<Line> updateLines = new ArrayList<>();
+        Map<Long, Long> expectedVersions = new HashMap<>();
+        for (Line line : batch) {
+            if (line.product().getId() == null) {
+                inserts.add(line.product());
+            } else {
+                updateLines.add(line);
+                if (line.version() != null) {
+                    expectedVersions.put(line.product().getId(), line.version());
+                }
+            }
+        }
+        // In id order, so the row locks are taken in the order checkout takes them
+        List<Product> updates = updateLines.stream().map(Line::product)
+                .sorted(Comparator.comparing(Product::getId)).toList();
+
+        Written written;
+        try {
+            written = transactionTemplate.execute(status -> {
+                productBatchRepository.insertAll(inserts);
+                int[] counts = productBatchRepository.updateAll(updates, expectedVersions);
+                List<Long> updatedIds = new ArrayList<>();
+                List<Long> rejectedIds = new ArrayList<>();
+                for (int i = 0; i < updates.size(); i++) {
+                    (counts[i] == 0 ? rejectedIds : updatedIds).add(updates.get(i).getId());
+                }
+                productChangeRepository.insertAll(inserts, ProductChangeType.CREATED);
+                productChangeRepository.insertSnapshots(updatedIds, ProductChangeType.UPDATED);
+                return new Written(updatedIds, productBatchRepository.findVersions(rejectedIds));
+            });
+        } catch (DataAccessException e) {
+            // The generated ids were rolled back with the batch
+            inserts.forEach(product -> product.setId(null));
+            throw e;
+        }
+
+        for (Line line : updateLines) {
+            Long id = line.product().getId();
+            if (written.updatedIds().contains(id)) {
+                continue;
+            }
+            Long current = written.rejectedVersions().get(id);
+            report.fail(line.number(), current == null
+                    ? "Product not found with id: " + id
+                    : "Product " + id + " was modified concurrently: expected version " + line.version()
+                    + " but found " + current);
+        }
+        report.inserted += inserts.size();
+        report.updated += written.updatedIds().size();
+        productService.refreshImported(inserts, written.updatedIds());
+    }
+
+    private Product toProduct(ProductImportRow row) {
+        if (row.getVersion() != null && row.getId() == null) {
+            throw new InvalidOrderOperationException("version is only allowed on rows with an id");
+        }
+        CreateProductRequest request = new CreateProductRequest(row.getName(), row.getPrice(), row.getStock(),
+                row.getCategory());
+        Set<ConstraintViolation<CreateProductRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new InvalidOrderOperationException(violations.stream()
+                    .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .collect(Collectors.joining("; ")));
+        }
+        productService.validateProductData(request.getName(), request.getPrice(), request.getStock());
+
+        Product product = new Product();
+        product.setId(row.getId());
+        product.setName(request.getName().trim());
+        product.setPrice(request.getPrice());
+        product.setStock(request.getStock());
+        product.setCategory(request.getCategory().trim());
+        if (row.getId() == null) {
+            product.setIsActive(row.getIsActive() == null || row.getIsActive());
+            product.setCreatedAt(LocalDateTime.now());
+        } else {
+            product.setIsActive(row.getIsActive());
+        }
+        return product;
+    }
+
+    private ProductImportRow parseJson(String text) {
+        try {
+            ProductImportRow row = objectMapper.readValue(text, ProductImportRow.class);
+            if (row == null) {
+                throw new InvalidOrderOperationException("Row must be a JSON object");
+            }
+            return row;
+        } catch (JsonProcessingException e) {
+            throw new InvalidOrderOperationException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Reads the header line and returns a parser for the rows below it. Columns are matched
+     * by name, case-insensitively; {@code id}, {@code version} and {@code isActive} are optional.
+     */
+    private RowParser csvParser(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            throw new InvalidOrderOperationException("CSV import must start with a header row");
+        }
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsv(header);
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT);
+            if (!CSV_COLUMNS.contains(name)) {
+                throw new InvalidOrderOperationException("Unknown CSV column: " + names.get(i));
+            }
+            columns.put(name, i);
+        }
+        for (String required : List.of("name", "price", "stock", "category")) {
+            if (!columns.containsKey(required)) {
+                throw new InvalidOrderOperationException("CSV header is missing the '" + required + "' column");
+            }
+        }
+
+        return text -> {
+            List<String> values = splitCsv(text);
+            if (values.size() != names.size()) {
+                throw new InvalidOrderOperationException(
+                        "Expected " + names.size() + " columns but found " + values.size());
+            }
+            ProductImportRow row = new ProductImportRow();
+            String id = value(values, columns, "id");
+            String version = value(values, columns, "version");
+            String price = value(values, columns, "price");
+            String stock = value(values, columns, "stock");
+            String active = value(values, columns, "isactive");
+            try {
+                row.setId(id == null ? null : Long.valueOf(id));
+                row.setVersion(version == null ? null : Long.valueOf(version));
+                row.setPrice(price == null ? null : new BigDecimal(price));
+                row.setStock(stock == null ? null : Integer.valueOf(stock));
+            } catch (NumberFormatException e) {
+                throw new InvalidOrderOperationException("id, version, price and stock must be numbers");
+            }
+            if (active != null && !active.equalsIgnoreCase("true") && !active.equalsIgnoreCase("false")) {
+                throw new InvalidOrderOperationException("isActive must be true or false");
+            }
+            row.setIsActive(active == null ? null : Boolean.valueOf(active));
+            row.setName(value(values, columns, "name"));
+            row.setCategory(value(values, columns, "category"));
+            return row;
+        };
+    }
+
+    private static String value(List<String> values, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Splits one CSV line on commas. Fields may be quoted, with {@code ""} for a literal
+     * quote; quoted fields cannot span lines.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new InvalidOrderOperationException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        ProductImportRow parse(String text);
+    }
+
+    private record Line(long number, Product product, Long version) {
+    }
+
+    private record Written(List<Long> updatedIds, Map<Long, Long> rejectedVersions) {
+    }
+
+    private final class Report {
+        private long rows;
+        private long inserted;
+        private long updated;
+        private long failed;
+        private final List<ProductImportError> errors = new ArrayList<>();
+
+        void fail(long line, String error) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ProductImportError(line, error));
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.EcOMS.service;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over product name and category. Each product occupies a slot;
+ * every trigram of its lower-cased name and category maps to an ascending list of slots.
+ * A query takes the shortest posting list among its trigrams as candidates and confirms
+ * each with a substring check, which gives the same matches as
+ * {@code LOWER(column) LIKE '%term%'} without scanning the table.
+ * <p>
+ * Updating a product writes a new slot and tombstones the old one; the postings are
+ * compacted once tombstones outnumber live entries.
+ * <p>
+ * Names sort with an English {@link Collator} rather than {@code String.compareTo}, so
+ * "apple" comes before "Banana" and "Éclair" sits next to "eclair", as {@code ORDER BY name}
+ * does under an English database collation (H2's {@code COLLATION=ENGLISH} is the same
+ * collator). A database with a C or non-English collation pages names in another order.
+ */
+@Component
+public class ProductSearchIndex {
+
+    static final Set<String> SORT_FIELDS = Set.of("id", "name", "price", "createdAt");
+
+    private static final int COMPACT_MIN_DEAD = 10_000;
+
+    private static final Collator NAME_ORDER = Collator.getInstance(Locale.ENGLISH);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private List<Entry> slots = new ArrayList<>();
+    private Map<Long, Integer> slotById = new HashMap<>();
+    private Map<Long, Postings> nameGrams = new HashMap<>();
+    private Map<Long, Postings> categoryGrams = new HashMap<>();
+    private int dead;
+    private volatile boolean ready;
+    private boolean rebuilding;
+    private final Set<Long> changedDuringRebuild = new HashSet<>();
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void upsert(Long id, String name, String category, BigDecimal price, LocalDateTime createdAt) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = slotById.get(id);
+            if (previous != null) {
+                slots.set(previous, null);
+                dead++;
+            }
+            append(new Entry(id, name, category, price, createdAt));
+            if (rebuilding) {
+                changedDuringRebuild.add(id);
+            }
+            if (dead > COMPACT_MIN_DEAD && dead > slotById.size()) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            changedDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the whole index with {@code entries} and marks it ready. Returns the ids
+     * upserted since {@link #beginRebuild()}: {@code entries} may predate those changes,
+     * so the caller should upsert them again from the database.
+     */
+    public Set<Long> replaceAll(Iterable<Entry> entries) {
+        ProductSearchIndex fresh = new ProductSearchIndex();
+        for (Entry entry : entries) {
+            fresh.append(entry);
+        }
+
+        lock.writeLock().lock();
+        try {
+            slots = fresh.slots;
+            slotById = fresh.slotById;
+            nameGrams = fresh.nameGrams;
+            categoryGrams = fresh.categoryGrams;
+            dead = 0;
+            ready = true;
+            rebuilding = false;
+            Set<Long> changed = Set.copyOf(changedDuringRebuild);
+            changedDuringRebuild.clear();
+            return changed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the products matching both filters (a null filter matches everything) and
+     * returns their count together with the ids of the first {@code limit} matches,
+     * ordered by {@code sortBy} and then by id. Only those {@code limit} matches are kept
+     * in order, so a first page costs the same whether a term matches ten products or a
+     * million.
+     */
+    public Result search(String name, String category, String sortBy, boolean ascending, int limit) {
+        return search(name, category, sortBy, ascending, null, limit);
+    }
+
+    /**
+     * Like {@link #search(String, String, String, boolean, int)}, but keeps only matches
+     * ordered after {@code after}, which needs just its id and sort value; the count still
+     * covers every match. Used to continue a cursor-paginated search.
+     */
+    public Result search(String name, String category, String sortBy, boolean ascending, Entry after, int limit) {
+        String nameTerm = lower(name);
+        String categoryTerm = lower(category);
+        Comparator<Entry> order = ascending ? comparator(sortBy) : comparator(sortBy).reversed();
+        // Max-heap on the requested order: the head is the worst match kept so far
+        PriorityQueue<Entry> top = new PriorityQueue<>(Math.max(1, Math.min(limit, 1024)), order.reversed());
+        int total = 0;
+
+        lock.readLock().lock();
+        try {
+            Postings candidates = shortest(null, nameGrams, nameTerm);
+            candidates = shortest(candidates, categoryGrams, categoryTerm);
+
+            int count = candidates == null ? slots.size() : candidates.size;
+            for (int i = 0; i < count; i++) {
+                Entry entry = slots.get(candidates == null ? i : candidates.slots[i]);
+                if (entry == null || !entry.matches(nameTerm, categoryTerm)) {
+                    continue;
+                }
+                total++;
+                if (after != null && order.compare(entry, after) <= 0) {
+                    continue;
+                }
+                if (top.size() < limit) {
+                    top.add(entry);
+                } else if (limit > 0 && order.compare(entry, top.peek()) < 0) {
+                    top.poll();
+                    top.add(entry);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Entry> kept = new ArrayList<>(top);
+        kept.sort(order);
+        return new Result(total, kept.stream().map(Entry::id).toList());
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void append(Entry entry) {
+        int slot = slots.size();
+        slots.add(entry);
+        slotById.put(entry.id(), slot);
+        addGrams(nameGrams, entry.nameLower(), slot);
+        addGrams(categoryGrams, entry.categoryLower(), slot);
+    }
+
+    private void compact() {
+        List<Entry> live = slots.stream().filter(entry -> entry != null).toList();
+        slots = new ArrayList<>(live.size());
+        slotById = new HashMap<>();
+        nameGrams = new HashMap<>();
+        categoryGrams = new HashMap<>();
+        dead = 0;
+        live.forEach(this::append);
+    }
+
+    /**
+     * Narrows {@code current} to the shortest posting list among the trigrams of
+     * {@code term}. Returns {@code current} when the term is too short to have trigrams,
+     * and an empty list when some trigram does not occur at all.
+     */
+    private static Postings shortest(Postings current, Map<Long, Postings> grams, String term) {
+        if (term == null || term.length() < 3) {
+            return current;
+        }
+        Postings best = current;
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            Postings postings = grams.get(trigram(term, i));
+            if (postings == null) {
+                return Postings.EMPTY;
+            }
+            if (best == null || postings.size < best.size) {
+                best = postings;
+            }
+        }
+        return best;
+    }
+
+    private static void addGrams(Map<Long, Postings> grams, String value, int slot) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            Postings postings = grams.computeIfAbsent(trigram(value, i), key -> new Postings());
+            // A value repeating a trigram would otherwise add the same slot twice
+            if (postings.size == 0 || postings.slots[postings.size - 1] != slot) {
+                postings.add(slot);
+            }
+        }
+    }
+
+    private static long trigram(String value, int start) {
+        return ((long) value.charAt(start) << 32) | ((long) value.charAt(start + 1) << 16) | value.charAt(start + 2);
+    }
+
+    private static String lower(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static Comparator<Entry> comparator(String sortBy) {
+        Comparator<Entry> byId = Comparator.comparing(Entry::id);
+        return switch (sortBy) {
+            case "name" -> Comparator.comparing(Entry::nameKey).thenComparing(byId);
+            case "price" -> Comparator.comparing(Entry::price).thenComparing(byId);
+            case "createdAt" -> Comparator.comparing(Entry::createdAt,
+                    Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder())).thenComparing(byId);
+            default -> byId;
+        };
+    }
+
+    public record Result(int total, List<Long> ids) {
+    }
+
+    public record Entry(Long id, String name, String nameLower, CollationKey nameKey, String categoryLower,
+                        BigDecimal price, LocalDateTime createdAt) {
+
+        public Entry(Long id, String name, String category, BigDecimal price, LocalDateTime createdAt) {
+            this(id, name, lower(name), NAME_ORDER.getCollationKey(name), lower(category), price, createdAt);
+        }
+
+        boolean matches(String nameTerm, String categoryTerm) {
+            return (nameTerm == null || nameLower.contains(nameTerm))
+                    && (categoryTerm == null || (categoryLower != null && categoryLower.contains(categoryTerm)));
+        }
+    }
+
+    private static final class Postings {
+
+        static final Postings EMPTY = new Postings();
+
+        private int[] slots = new int[4];
+        private int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+    }
+}
@@ -2,30 +2,62 @@ package com.example.EcOMS.service;
 
 
 
+import com.example.EcOMS.config.ReadYourWritesTracker;
+import com.example.EcOMS.config.ReplicationRoutingDataSource;
 import com.example.EcOMS.dto.*;
 import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.enums.ProductChangeType;
 
 import com.example.EcOMS.exceptionnn.InvalidOrderOperationException;
 import com.example.EcOMS.exceptionnn.ProductNotFoundException;
+import com.example.EcOMS.repository.ProductChangeRepository;
 import com.example.EcOMS.repository.ProductRepository;
+import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
+    private static final int SEARCH_INDEX_CHUNK_SIZE = 5_000;
+
     private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final ReadYourWritesTracker readYourWrites;
+    private final ProductChangeRepository productChangeRepository;
+
+    @Value("${ecoms.product-cache.warmup-size:0}")
+    private int cacheWarmupSize;
+
+    @Value("${ecoms.search-index.enabled:true}")
+    private boolean searchIndexEnabled;
 
+    @Transactional(readOnly = true)
     public PageResponse<ProductDTO> getAllProducts(int page, int size, String sortBy, String sortDir) {
 
         if (page < 0) {
@@ -45,10 +77,62 @@ public class ProductService {
         return convertToPageResponse(productPage);
     }
 
+    @Transactional(readOnly = true)
     public ProductDTO getProductById(Long id) {
-        Product product = productRepository.findById(id)
+        return productCache.get(id, key -> productRepository.findById(key)
+                .map(this::convertToDTO)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + key)));
+    }
+
+    /**
+     * Version of the product for conditional requests, taken from the cache when it holds
+     * the product and otherwise read without loading the row.
+     */
+    @Transactional(readOnly = true)
+    public ProductVersion getProductVersion(Long id) {
+        ProductDTO cached = productCache.getIfPresent(id);
+        if (cached != null) {
+            return new ProductVersion(id, cached.getVersion(),
+                    cached.getUpdatedAt() != null ? cached.getUpdatedAt() : cached.getCreatedAt());
+        }
+        // A lagging replica would answer 304 to a client that already saw the new version
+        readYourWrites.usePrimaryForProduct(id);
+        return productRepository.findVersionById(id)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
-        return convertToDTO(product);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildSearchIndex() {
+        if (!searchIndexEnabled) {
+            return;
+        }
+        productSearchIndex.beginRebuild();
+
+        List<ProductSearchIndex.Entry> entries = new ArrayList<>();
+        long afterId = 0;
+        List<Product> chunk;
+        do {
+            chunk = productRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(SEARCH_INDEX_CHUNK_SIZE));
+            chunk.forEach(product -> entries.add(indexEntry(product)));
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == SEARCH_INDEX_CHUNK_SIZE);
+
+        Set<Long> changed = productSearchIndex.replaceAll(entries);
+        productRepository.findAllById(changed).forEach(this::index);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUpCache() {
+        if (cacheWarmupSize <= 0) {
+            return;
+        }
+        // Like any other cache fill, from the primary
+        ReplicationRoutingDataSource.pinToPrimary();
+        List<Long> ids = productRepository.findBestSellingProductIds(Limit.of(cacheWarmupSize));
+        productRepository.findAllById(ids).forEach(product -> productCache.put(convertToDTO(product)));
     }
 
     @Transactional
@@ -65,7 +149,11 @@ public class ProductService {
         product.setCreatedAt(LocalDateTime.now());
 
         Product savedProduct = productRepository.save(product);
-        return convertToDTO(savedProduct);
+        productChangeRepository.insertAll(List.of(savedProduct), ProductChangeType.CREATED);
+        ProductDTO dto = convertToDTO(savedProduct);
+        productCache.putAfterCommit(dto);
+        indexAfterCommit(savedProduct);
+        return dto;
     }
 
     @Transactional
@@ -100,7 +188,11 @@ public class ProductService {
             product.setIsActive(request.getIsActive());
         }
 
-        Product updatedProduct = productRepository.save(product);
+        // Flush now so the returned DTO carries the bumped version
+        Product updatedProduct = productRepository.saveAndFlush(product);
+        productChangeRepository.insertAll(List.of(updatedProduct), ProductChangeType.UPDATED);
+        productCache.evict(id);
+        indexAfterCommit(updatedProduct);
         return convertToDTO(updatedProduct);
     }
 
@@ -117,9 +209,12 @@ public class ProductService {
 
         product.setIsActive(false);
         productRepository.save(product);
+        productChangeRepository.insertAll(List.of(product), ProductChangeType.DELETED);
+        productCache.evict(id);
 
     }
 
+    @Transactional(readOnly = true)
     public PageResponse<ProductDTO> searchProducts(String name, String category,
                                                    int page, int size,
                                                    String sortBy, String sortDir) {
@@ -130,22 +225,216 @@ public class ProductService {
             throw new InvalidOrderOperationException("Page size must be between 1 and 100");
         }
 
+        String searchName = (name != null && !name.isBlank()) ? name.trim() : null;
+        String searchCategory = (category != null && !category.isBlank()) ? category.trim() : null;
+
+        if (usesSearchIndex(searchName, searchCategory, sortBy)) {
+            long limit = (long) (page + 1) * size;
+            ProductSearchIndex.Result result = productSearchIndex.search(searchName, searchCategory,
+                    sortBy, !sortDir.equalsIgnoreCase("desc"), (int) Math.min(limit, Integer.MAX_VALUE));
+            return indexedPage(result, page, size);
+        }
+
         Sort sort = sortDir.equalsIgnoreCase("desc")
                 ? Sort.by(sortBy).descending()
                 : Sort.by(sortBy).ascending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        String searchName = (name != null && !name.isBlank()) ? name.trim() : null;
-        String searchCategory = (category != null && !category.isBlank()) ? category.trim() : null;
-
         Page<Product> productPage = productRepository.searchProducts(
                 searchName, searchCategory, pageable);
 
         return convertToPageResponse(productPage);
     }
 
-    private void validateProductData(String name, java.math.BigDecimal price, Integer stock) {
+    @Transactional(readOnly = true)
+    public PageResponse<ProductDTO> getProductsAfter(String after, int size, String sortBy, String sortDir,
+                                                     boolean withTotal) {
+        return scroll(null, after, size, sortBy, sortDir, withTotal);
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponse<ProductDTO> searchProductsAfter(String name, String category, String after,
+                                                        int size, String sortBy, String sortDir,
+                                                        boolean withTotal) {
+        String searchName = (name != null && !name.isBlank()) ? name.trim() : null;
+        String searchCategory = (category != null && !category.isBlank()) ? category.trim() : null;
+
+        // A %term% LIKE cannot use an index, so every page would scan the table
+        if ((searchName != null || searchCategory != null) && usesSearchIndex(searchName, searchCategory, sortBy)) {
+            return indexedScroll(searchName, searchCategory, after, size, sortBy, sortDir, withTotal);
+        }
+        return scroll(searchSpecification(searchName, searchCategory), after, size, sortBy, sortDir, withTotal);
+    }
+
+    private PageResponse<ProductDTO> scroll(Specification<Product> filter, String after, int size,
+                                            String sortBy, String sortDir, boolean withTotal) {
+        if (size <= 0 || size > 100) {
+            throw new InvalidOrderOperationException("Page size must be between 1 and 100");
+        }
+        ProductCursor.validateSort(sortBy);
+
+        Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Specification<Product> seek = filter != null ? filter : (root, query, cb) -> cb.conjunction();
+        if (after != null && !after.isBlank()) {
+            seek = seek.and(ProductCursor.decode(after, sortBy, direction).seek());
+        }
+
+        // Fetch one extra row to learn whether another page exists without a COUNT
+        List<Product> rows = productRepository.findBy(seek, query -> query
+                .sortBy(ProductCursor.sort(sortBy, direction))
+                .limit(size + 1)
+                .all());
+
+        boolean hasMore = rows.size() > size;
+        List<Product> page = hasMore ? rows.subList(0, size) : rows;
+
+        Long total = null;
+        if (withTotal) {
+            total = filter == null ? productRepository.count() : productRepository.count(filter);
+        }
+        return cursorPage(page, hasMore, size, sortBy, direction, total);
+    }
+
+    /**
+     * Cursor pagination over the search index: the index orders the matches and continues
+     * after the cursor's position, and only the page's rows are read from the database.
+     */
+    private PageResponse<ProductDTO> indexedScroll(String name, String category, String after, int size,
+                                                   String sortBy, String sortDir, boolean withTotal) {
+        if (size <= 0 || size > 100) {
+            throw new InvalidOrderOperationException("Page size must be between 1 and 100");
+        }
+        ProductCursor.validateSort(sortBy);
+
+        Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        ProductSearchIndex.Entry position = after != null && !after.isBlank()
+                ? ProductCursor.decode(after, sortBy, direction).indexPosition()
+                : null;
+        ProductSearchIndex.Result result = productSearchIndex.search(name, category, sortBy,
+                direction.isAscending(), position, size + 1);
+
+        boolean hasMore = result.ids().size() > size;
+        List<Long> pageIds = hasMore ? result.ids().subList(0, size) : result.ids();
+        Map<Long, Product> products = productRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> page = pageIds.stream().map(products::get).filter(Objects::nonNull).toList();
+
+        return cursorPage(page, hasMore && !page.isEmpty(), size, sortBy, direction,
+                withTotal ? (long) result.total() : null);
+    }
+
+    private PageResponse<ProductDTO> cursorPage(List<Product> page, boolean hasMore, int size, String sortBy,
+                                                Sort.Direction direction, Long total) {
+        PageResponse<ProductDTO> response = new PageResponse<>();
+        response.setContent(page.stream().map(this::convertToDTO).collect(Collectors.toList()));
+        response.setPageSize(size);
+        response.setLast(!hasMore);
+        if (hasMore) {
+            response.setNextCursor(ProductCursor.encode(page.get(page.size() - 1), sortBy, direction));
+        }
+        if (total != null) {
+            response.setTotalElements(total);
+            response.setTotalPages((int) Math.ceil((double) total / size));
+        }
+        return response;
+    }
+
+    private static Specification<Product> searchSpecification(String name, String category) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (name != null) {
+                predicates.add(cb.like(cb.lower(root.get("name")), "%" + name.toLowerCase(Locale.ROOT) + "%"));
+            }
+            if (category != null) {
+                predicates.add(cb.like(cb.lower(root.get("category")), "%" + category.toLowerCase(Locale.ROOT) + "%"));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    private PageResponse<ProductDTO> indexedPage(ProductSearchIndex.Result result, int page, int size) {
+        List<Long> ids = result.ids();
+        int from = (int) Math.min((long) page * size, ids.size());
+        List<Long> pageIds = ids.subList(from, Math.min(from + size, ids.size()));
+
+        Map<Long, Product> products = productRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        PageResponse<ProductDTO> response = new PageResponse<>();
+        response.setContent(pageIds.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToDTO)
+                .collect(Collectors.toList()));
+        int totalPages = (int) Math.ceil((double) result.total() / size);
+        response.setPageNumber(page);
+        response.setPageSize(size);
+        response.setTotalElements((long) result.total());
+        response.setTotalPages(totalPages);
+        response.setLast(page + 1 >= totalPages);
+        return response;
+    }
+
+    /**
+     * Whether a search can be answered from the index. LIKE wildcards in the terms and sort
+     * fields the index does not hold go to the database.
+     */
+    private boolean usesSearchIndex(String name, String category, String sortBy) {
+        return productSearchIndex.isReady()
+                && ProductSearchIndex.SORT_FIELDS.contains(sortBy)
+                && !hasLikeWildcard(name)
+                && !hasLikeWildcard(category);
+    }
+
+    private static boolean hasLikeWildcard(String term) {
+        return term != null && (term.indexOf('%') >= 0 || term.indexOf('_') >= 0 || term.indexOf('\\') >= 0);
+    }
+
+    /**
+     * Brings the cache and search index up to date with products written by a bulk import.
+     * Updated products are reloaded since the import does not know their creation time.
+     */
+    void refreshImported(List<Product> inserted, List<Long> updatedIds) {
+        productCache.evict(updatedIds);
+        readYourWrites.recordProductIds(inserted.stream().map(Product::getId).toList());
+        if (!searchIndexEnabled) {
+            return;
+        }
+        inserted.forEach(this::index);
+        if (!updatedIds.isEmpty()) {
+            productRepository.findAllById(updatedIds).forEach(this::index);
+        }
+    }
+
+    private void indexAfterCommit(Product product) {
+        if (!searchIndexEnabled) {
+            return;
+        }
+        Long id = product.getId();
+        String name = product.getName();
+        String category = product.getCategory();
+        BigDecimal price = product.getPrice();
+        LocalDateTime createdAt = product.getCreatedAt();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                productSearchIndex.upsert(id, name, category, price, createdAt);
+            }
+        });
+    }
+
+    private void index(Product product) {
+        productSearchIndex.upsert(product.getId(), product.getName(), product.getCategory(),
+                product.getPrice(), product.getCreatedAt());
+    }
+
+    private static ProductSearchIndex.Entry indexEntry(Product product) {
+        return new ProductSearchIndex.Entry(product.getId(), product.getName(), product.getCategory(),
+                product.getPrice(), product.getCreatedAt());
+    }
+
+    void validateProductData(String name, java.math.BigDecimal price, Integer stock) {
         validateProductName(name);
         validateProductPrice(price);
         validateProductStock(stock);
@@ -187,10 +476,12 @@ public class ProductService {
         dto.setCategory(product.getCategory());
         dto.setIsActive(product.getIsActive());
         dto.setCreatedAt(product.getCreatedAt());
+        dto.setVersion(product.getVersion());
+        dto.setUpdatedAt(product.getUpdatedAt());
         return dto;
     }
 
-    private PageResponse<ProductDTO> convertToPageResponse(Page<Product> productPage) {
+    PageResponse<ProductDTO> convertToPageResponse(Page<Product> productPage) {
         List<ProductDTO> content = productPage.getContent().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
@@ -0,0 +1,257 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.ProductCategory;
+import com.example.EcOMS.dto.SalesStatisticsDTO;
+import com.example.EcOMS.entity.Order;
+import com.example.EcOMS.entity.OrderItem;
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.entity.SalesBucket;
+import com.example.EcOMS.enums.OrderStatus;
+import com.example.EcOMS.exceptionnn.InvalidOrderOperationException;
+import com.example.EcOMS.repository.OrderBatchRepository;
+import com.example.EcOMS.repository.ProductRepository;
+import com.example.EcOMS.repository.SalesBucketRepository;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sales by day of sale ({@code placed_at}), product category and order status, kept in
+ * {@code sales_buckets} instead of being aggregated from the order tables on every read.
+ * Order changes append bucket deltas to {@code sales_bucket_deltas} in their own
+ * transaction, so a delta commits or rolls back with the order and survives a crash or
+ * redeploy. Checkout only inserts, never contending on a shared counter row; a scheduled
+ * flush folds the deltas into the buckets. Reads combine the buckets with the deltas not
+ * folded yet.
+ *
+ * <p>Reads run in read-only transactions and so go to the replica when one is configured: a
+ * sale shows up once the replica has replayed the order's transaction.
+ */
+@Service
+@RequiredArgsConstructor
+public class SalesStatisticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesStatisticsService.class);
+
+    private static final Set<OrderStatus> SALE_STATUSES = EnumSet.complementOf(EnumSet.of(OrderStatus.CANCELLED));
+    private static final int DEFAULT_RANGE_DAYS = 30;
+    private static final int MAX_RANGE_DAYS = 366;
+
+    private final SalesBucketRepository salesBucketRepository;
+    private final ProductRepository productRepository;
+
+    @Value("${ecoms.sales-stats.fold-batch-size:10000}")
+    private int foldBatchSize;
+
+    public void recordCreated(List<Order> orders) {
+        Map<SalesBucket.Key, Delta> deltas = new HashMap<>();
+        orders.forEach(order -> new Contribution(order.getPlacedAt().toLocalDate(), order.getOrderStatus(),
+                lines(order)).apply(1, deltas));
+        insert(deltas);
+    }
+
+    /**
+     * Moves the order's sale from {@code previousStatus} to its current status. The day stays
+     * the day it was placed, however long after that the status changes.
+     */
+    public void recordStatusChange(Order order, OrderStatus previousStatus) {
+        Map<String, Line> lines = lines(order);
+        LocalDate day = order.getPlacedAt().toLocalDate();
+        Map<SalesBucket.Key, Delta> deltas = new HashMap<>();
+        new Contribution(day, previousStatus, lines).apply(-1, deltas);
+        new Contribution(day, order.getOrderStatus(), lines).apply(1, deltas);
+        insert(deltas);
+    }
+
+    /**
+     * Set-based counterpart of {@link #recordStatusChange} for orders whose status was
+     * changed in bulk to {@code status}; their lines are read in one query.
+     */
+    public void recordStatusChanges(List<OrderBatchRepository.OrderState> orders, OrderStatus status) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        Map<Long, Map<String, Line>> linesByOrder = new HashMap<>();
+        for (SalesBucketRepository.OrderCategoryLine row : salesBucketRepository.findOrderLines(
+                orders.stream().map(OrderBatchRepository.OrderState::id).toList())) {
+            Map<String, Line> lines = linesByOrder.computeIfAbsent(row.orderId(), id -> new HashMap<>());
+            lines.put(row.category(), new Line(1, row.units(), row.revenue()));
+            lines.merge(SalesBucketRepository.TOTAL_CATEGORY, new Line(1, row.units(), BigDecimal.ZERO),
+                    Line::sameOrder);
+        }
+
+        Map<SalesBucket.Key, Delta> deltas = new HashMap<>();
+        for (OrderBatchRepository.OrderState order : orders) {
+            Map<String, Line> lines = linesByOrder.getOrDefault(order.id(), new HashMap<>());
+            Line total = lines.getOrDefault(SalesBucketRepository.TOTAL_CATEGORY, new Line(1, 0, BigDecimal.ZERO));
+            lines.put(SalesBucketRepository.TOTAL_CATEGORY, new Line(1, total.units(), order.totalAmount()));
+            LocalDate day = order.placedAt().toLocalDate();
+            new Contribution(day, order.status(), lines).apply(-1, deltas);
+            new Contribution(day, status, lines).apply(1, deltas);
+        }
+        insert(deltas);
+    }
+
+    public void recordDeleted(Order order) {
+        Map<SalesBucket.Key, Delta> deltas = new HashMap<>();
+        new Contribution(order.getPlacedAt().toLocalDate(), order.getOrderStatus(), lines(order)).apply(-1, deltas);
+        insert(deltas);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SalesStatisticsDTO> getStatistics(LocalDate from, LocalDate to, Set<OrderStatus> statuses,
+                                                  String category) {
+        if (to == null) {
+            to = LocalDate.now();
+        }
+        if (from == null) {
+            from = to.minusDays(DEFAULT_RANGE_DAYS - 1);
+        }
+        if (from.isAfter(to)) {
+            throw new InvalidOrderOperationException("'from' must not be after 'to'");
+        }
+        if (from.plusDays(MAX_RANGE_DAYS).isBefore(to)) {
+            throw new InvalidOrderOperationException("Date range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+        Set<OrderStatus> included = statuses == null || statuses.isEmpty() ? SALE_STATUSES : statuses;
+
+        return salesBucketRepository.findStatistics(from, to, included, category);
+    }
+
+    /**
+     * Folds up to {@code ecoms.sales-stats.fold-batch-size} of the oldest deltas into their
+     * buckets and deletes them, all in one transaction: if it fails, the deltas stay and the
+     * next run folds them. Rows locked by a concurrent fold on another node are skipped.
+     */
+    @Scheduled(fixedDelayString = "${ecoms.sales-stats.flush-interval:PT5S}")
+    @Transactional
+    public void flush() {
+        List<SalesBucketRepository.PendingDelta> pending = salesBucketRepository.lockPendingDeltas(foldBatchSize);
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<SalesBucket.Key, Delta> folded = new HashMap<>();
+        for (SalesBucketRepository.PendingDelta row : pending) {
+            SalesBucket delta = row.delta();
+            folded.merge(new SalesBucket.Key(delta.getDay(), delta.getCategory(), delta.getStatus()),
+                    new Delta(delta.getOrderCount(), delta.getUnits(), delta.getRevenue()), Delta::plus);
+        }
+        salesBucketRepository.applyDeltas(buckets(folded));
+        salesBucketRepository.deleteDeltas(pending.stream().map(SalesBucketRepository.PendingDelta::id).toList());
+        log.debug("Folded {} sales deltas into {} buckets", pending.size(), folded.size());
+    }
+
+    /**
+     * Recomputes every bucket from the order history and drops the unfolded deltas. Deltas of
+     * orders committed while the rebuild runs may be counted twice, so run it when order
+     * traffic is quiet.
+     */
+    @Transactional
+    public void rebuild() {
+        salesBucketRepository.rebuild();
+    }
+
+    private Map<String, Line> lines(Order order) {
+        Map<Long, String> categories = categories(order.getOrderItems());
+        Map<String, Line> lines = new HashMap<>();
+        int units = 0;
+        for (OrderItem item : order.getOrderItems()) {
+            String category = categories.getOrDefault(item.getProduct().getId(), SalesBucketRepository.UNCATEGORIZED);
+            lines.merge(category, new Line(1, item.getQuantity(), item.getTotalPrice()), Line::sameOrder);
+            units += item.getQuantity();
+        }
+        lines.put(SalesBucketRepository.TOTAL_CATEGORY, new Line(1, units, order.getTotalAmount()));
+        return lines;
+    }
+
+    // Products locked by the caller are already loaded; the rest are looked up in one query
+    private Map<Long, String> categories(Collection<OrderItem> items) {
+        Map<Long, String> categories = new HashMap<>();
+        List<Long> unloaded = new ArrayList<>();
+        for (OrderItem item : items) {
+            Product product = item.getProduct();
+            if (Hibernate.isInitialized(product)) {
+                categories.put(product.getId(), categoryOf(product.getCategory()));
+            } else {
+                unloaded.add(product.getId());
+            }
+        }
+        if (!unloaded.isEmpty()) {
+            categories.putAll(productRepository.findCategoriesByIdIn(unloaded).stream()
+                    .collect(Collectors.toMap(ProductCategory::getProductId, p -> categoryOf(p.getCategory()))));
+        }
+        return categories;
+    }
+
+    private static String categoryOf(String category) {
+        return category == null || category.isBlank() ? SalesBucketRepository.UNCATEGORIZED : category;
+    }
+
+    // Runs in the caller's transaction, so the deltas commit or roll back with the order change
+    private void insert(Map<SalesBucket.Key, Delta> deltas) {
+        salesBucketRepository.insertDeltas(buckets(deltas));
+    }
+
+    private static List<SalesBucket> buckets(Map<SalesBucket.Key, Delta> deltas) {
+        List<SalesBucket> buckets = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> {
+            if (!delta.isZero()) {
+                buckets.add(new SalesBucket(key.getDay(), key.getCategory(), key.getStatus(),
+                        delta.orders(), delta.units(), delta.revenue()));
+            }
+        });
+        return buckets;
+    }
+
+    private record Line(long orders, long units, BigDecimal revenue) {
+        // Several items of one order in the same category still count as one order
+        Line sameOrder(Line other) {
+            return new Line(orders, units + other.units, revenue.add(other.revenue));
+        }
+    }
+
+    private record Delta(long orders, long units, BigDecimal revenue) {
+        Delta plus(Delta other) {
+            return new Delta(orders + other.orders, units + other.units, revenue.add(other.revenue));
+        }
+
+        boolean isZero() {
+            return orders == 0 && units == 0 && revenue.signum() == 0;
+        }
+    }
+
+    private static final class Contribution {
+        private final LocalDate day;
+        private final OrderStatus status;
+        private final Map<String, Line> lines;
+
+        private Contribution(LocalDate day, OrderStatus status, Map<String, Line> lines) {
+            this.day = day;
+            this.status = status;
+            this.lines = lines;
+        }
+
+        void apply(int sign, Map<SalesBucket.Key, Delta> deltas) {
+            BigDecimal factor = BigDecimal.valueOf(sign);
+            lines.forEach((category, line) -> deltas.merge(new SalesBucket.Key(day, category, status),
+                    new Delta(sign * line.orders(), sign * line.units(), line.revenue().multiply(factor)),
+                    Delta::plus));
+        }
+    }
+}
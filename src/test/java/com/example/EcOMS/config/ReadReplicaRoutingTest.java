@@ -0,0 +1,170 @@
+package com.example.EcOMS.config;
+
+import com.example.EcOMS.dto.OrderDTO;
+import com.example.EcOMS.dto.UpdateProductRequest;
+import com.example.EcOMS.exceptionnn.OrderNotFoundException;
+import com.example.EcOMS.service.OrderService;
+import com.example.EcOMS.service.ProductService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static com.example.EcOMS.support.TestFixtures.orderFor;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Two embedded databases stand in for the primary and the replica. They do not replicate,
+ * so each test copies the schema to the replica and seeds rows on one side or the other
+ * to see which database served a read.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ecoms-primary;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "ecoms.datasource.replica.jdbc-url=jdbc:h2:mem:ecoms-replica;DB_CLOSE_DELAY=-1",
+        "ecoms.datasource.replica.username=sa",
+        "ecoms.datasource.read-your-writes-window=PT1M"
+})
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void copySchemaToReplica() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("DROP ALL OBJECTS");
+        primary.queryForList("SCRIPT NODATA", String.class).stream()
+                .filter(statement -> !statement.startsWith("--"))
+                .forEach(replica::execute);
+    }
+
+    @Test
+    void productReadsUseTheReplicaUntilTheProductIsWritten() {
+        long id = 1_000_001L;
+        insertProduct(primary, id, "Primary copy");
+        insertProduct(replica, id, "Replica copy");
+        replica.update("UPDATE products SET version = 5 WHERE id = ?", id);
+
+        assertThat(productService.getProductVersion(id).getVersion()).isEqualTo(5);
+
+        UpdateProductRequest rename = new UpdateProductRequest();
+        rename.setName("Renamed");
+        productService.updateProduct(id, rename);
+
+        assertThat(nameOf(replica, id)).isEqualTo("Replica copy");
+        assertThat(productService.getProductVersion(id).getVersion()).isEqualTo(1);
+        assertThat(productService.getProductById(id).getName()).isEqualTo("Renamed");
+    }
+
+    @Test
+    void productCacheFillsReadThePrimary() {
+        long id = 1_000_005L;
+        insertProduct(primary, id, "Primary copy");
+        insertProduct(replica, id, "Replica copy");
+
+        // Never written through this node, yet the replica's copy must not be cached
+        assertThat(productService.getProductById(id).getName()).isEqualTo("Primary copy");
+    }
+
+    @Test
+    void theLastWriteCookieSendsReadsToThePrimaryOnAnyNode() {
+        long productId = 1_000_006L;
+        insertProduct(primary, productId, "Cookie item");
+        insertProduct(replica, productId, "Cookie item");
+
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        inRequest(new MockHttpServletRequest(), writeResponse, () -> {
+            UpdateProductRequest rename = new UpdateProductRequest();
+            rename.setName("Cookie item renamed");
+            productService.updateProduct(productId, rename);
+        });
+        Cookie lastWrite = writeResponse.getCookie(ReadYourWritesTracker.COOKIE);
+        assertThat(lastWrite).isNotNull();
+
+        // Placed by the same client through another node: on the primary, unknown to this node
+        long orderId = 1_000_007L;
+        insertOrder(primary, orderId, "roaming@example.com", productId);
+        assertThatThrownBy(() -> orderService.getOrdersByCustomerEmail("roaming@example.com", 0, 10))
+                .isInstanceOf(OrderNotFoundException.class);
+
+        MockHttpServletRequest read = new MockHttpServletRequest();
+        read.setCookies(lastWrite);
+        inRequest(read, new MockHttpServletResponse(), () ->
+                assertThat(orderService.getOrdersByCustomerEmail("roaming@example.com", 0, 10).getContent())
+                        .extracting(OrderDTO::getId).containsExactly(orderId));
+    }
+
+    @Test
+    void customerReadsTheirOwnOrderFromThePrimary() {
+        long productId = 1_000_002L;
+        insertProduct(primary, productId, "Routed item");
+        insertProduct(replica, productId, "Routed item");
+
+        // Exists only on the primary: served from there because the customer just wrote it
+        OrderDTO placed = orderService.createOrder(orderFor("writer@example.com", productId, 1));
+        assertThat(orderService.getOrdersByCustomerEmail("writer@example.com", 0, 10).getContent())
+                .extracting(OrderDTO::getId).containsExactly(placed.getId());
+        assertThat(orderService.getOrderById(placed.getId()).getId()).isEqualTo(placed.getId());
+
+        // Exists only on the replica: a customer without recent writes reads from there
+        long replicaOrderId = 1_000_003L;
+        insertOrder(replica, replicaOrderId, "reader@example.com", productId);
+        assertThat(orderService.getOrdersByCustomerEmail("reader@example.com", 0, 10).getContent())
+                .extracting(OrderDTO::getId).containsExactly(replicaOrderId);
+        assertThat(primary.queryForObject("SELECT COUNT(*) FROM orders WHERE address = 'reader@example.com'",
+                Integer.class)).isZero();
+    }
+
+    private static void insertProduct(JdbcTemplate jdbc, long id, String name) {
+        jdbc.update("INSERT INTO products (id, name, price, stock, category, is_active, created_at, version) " +
+                "VALUES (?, ?, ?, 10, 'Routing', TRUE, ?, 0)", id, name, new BigDecimal("2.00"), LocalDateTime.now());
+    }
+
+    private static void insertOrder(JdbcTemplate jdbc, long id, String email, long productId) {
+        jdbc.update("INSERT INTO orders (id, customer_name, customer_phone, address, create_at, order_status, " +
+                        "total_amount) VALUES (?, 'Reader', '+998901234567', ?, ?, 'PENDING', 2.00)",
+                id, email, LocalDateTime.now());
+        jdbc.update("INSERT INTO order_items (id, orders_id, product_id, quantity, unit_price, total_price) " +
+                "VALUES (?, ?, ?, 1, 2.00, 2.00)", id + 1, id, productId);
+    }
+
+    private static void inRequest(MockHttpServletRequest request, MockHttpServletResponse response, Runnable action) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        try {
+            action.run();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private static String nameOf(JdbcTemplate jdbc, long id) {
+        return jdbc.queryForObject("SELECT name FROM products WHERE id = ?", String.class, id);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.EcOMS.controller;
+
+import com.example.EcOMS.dto.OrderDTO;
+import com.example.EcOMS.dto.OrderItemRequest;
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.repository.ProductRepository;
+import com.example.EcOMS.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.example.EcOMS.support.SqlBudgetMatchers.withinSqlBudget;
+import static com.example.EcOMS.support.TestFixtures.orderFor;
+import static com.example.EcOMS.support.TestFixtures.saveProduct;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Locks in the SQL statement budget of every order and product endpoint. Orders carry
+ * several items so a per-item query would blow the budget.
+ */
+@SpringBootTest(properties = {"ecoms.order-intake.enabled=true", "ecoms.order-intake.hot-products=1"})
+@AutoConfigureMockMvc
+class ControllerSqlBudgetTest {
+
+    private static final int ITEMS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void orderEndpointsStayWithinBudget() throws Exception {
+        String email = UUID.randomUUID() + "@example.com";
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            products.add(saveProduct(productRepository, "Budget item " + i, 1_000));
+        }
+        OrderDTO first = orderService.createOrder(orderFor(email, oneOfEach(products)));
+        OrderDTO second = orderService.createOrder(orderFor(email, oneOfEach(products)));
+
+        mockMvc.perform(get("/api/orders")).andExpect(status().isOk()).andExpect(withinSqlBudget());
+        mockMvc.perform(get("/api/orders/{id}", first.getId()))
+                .andExpect(status().isOk()).andExpect(withinSqlBudget());
+        mockMvc.perform(get("/api/orders/customer/{email}", email))
+                .andExpect(status().isOk()).andExpect(withinSqlBudget());
+        mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON).content(orderJson(email, products)))
+                .andExpect(status().isCreated()).andExpect(withinSqlBudget());
+        mockMvc.perform(post("/api/orders").header("Idempotency-Key", UUID.randomUUID().toString())
+                        .contentType(MediaType.APPLICATION_JSON).content(orderJson(email, products)))
+                .andExpect(status().isCreated()).andExpect(withinSqlBudget());
+        mockMvc.perform(post("/api/orders/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + orderJson(email, products) + "," + orderJson(email, products) + "]"))
+                .andExpect(status().isOk()).andExpect(withinSqlBudget());
+        mockMvc.perform(post("/api/orders/async").contentType(MediaType.APPLICATION_JSON).content(orderJson(email, products)))
+                .andExpect(status().isAccepted()).andExpect(withinSqlBudget());
+        mockMvc.perform(put("/api/orders/{id}/status", first.getId())
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"status\":\"CANCELLED\"}"))
+                .andExpect(status().isOk()).andExpect(withinSqlBudget());
+        mockMvc.perform(delete("/api/orders/{id}", second.getId()))
+                .andExpect(status().isNoContent()).andExpect(withinSqlBudget());
+    }
+
+    @Test
+    void productEndpointsStayWithinBudget() throws Exception {
+        Product product = saveProduct(productRepository, "Budget product", 1_000);
+
+        mockMvc.perform(get("/api/products")).andExpect(status().isOk()).andExpect(withinSqlBudget());
+        mockMvc.perform(get("/api/products").param("after", "")).andExpect(status().isOk()).andExpect(withinSqlBudget());
+        mockMvc.perform(get("/api/products/search").param("name", "budget"))
+                .andExpect(status().isOk()).andExpect(withinSqlBudget());
+        mockMvc.perform(get("/api/products/{id}", product.getId()))
+                .andExpect(status().isOk()).andExpect(withinSqlBudget());
+        mockMvc.perform(post("/api/products").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Budget created\",\"price\":4.50,\"stock\":3,\"category\":\"Test\"}"))
+                .andExpect(status().isCreated()).andExpect(withinSqlBudget());
+        mockMvc.perform(put("/api/products/{id}", product.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Budget renamed\",\"price\":5.50,\"stock\":0,\"category\":\"Test\"}"))
+                .andExpect(status().isOk()).andExpect(withinSqlBudget());
+        mockMvc.perform(delete("/api/products/{id}", product.getId()))
+                .andExpect(status().isNoContent()).andExpect(withinSqlBudget());
+    }
+
+    private static List<OrderItemRequest> oneOfEach(List<Product> products) {
+        return products.stream().map(p -> new OrderItemRequest(p.getId(), 1)).toList();
+    }
+
+    private String orderJson(String email, List<Product> products) {
+        StringBuilder items = new StringBuilder();
+        for (Product product : products) {
+            if (!items.isEmpty()) {
+                items.append(',');
+            }
+            items.append("{\"productId\":").append(product.getId()).append(",\"quantity\":1}");
+        }
+        return """
+                {"customerEmail":"%s","customerName":"Budget Buyer","customerPhone":"+998901234567",
+                 "deliveryAddress":"Tashkent, Amir Temur street 1","items":[%s]}""".formatted(email, items);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.EcOMS.controller;
+
+import com.example.EcOMS.dto.OrderDTO;
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.repository.OrderRepository;
+import com.example.EcOMS.repository.ProductRepository;
+import com.example.EcOMS.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.EcOMS.support.TestFixtures.orderFor;
+import static com.example.EcOMS.support.TestFixtures.saveProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderControllerExportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void listsOrdersOnePageAtATime() throws Exception {
+        Product product = saveProduct(productRepository, "Export item", 100);
+        for (int i = 0; i < 3; i++) {
+            orderService.createOrder(orderFor("export@example.com", product.getId(), 1));
+        }
+
+        mockMvc.perform(get("/api/orders").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].orderItems[0].productName").value("Export item"))
+                .andExpect(jsonPath("$.last").value(false));
+    }
+
+    @Test
+    void exportsEveryOrderAsOneJsonLine() throws Exception {
+        Product product = saveProduct(productRepository, "Export item", 100);
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            OrderDTO order = orderService.createOrder(orderFor("export@example.com", product.getId(), 1));
+            created.add(order.getId());
+        }
+
+        MvcResult pending = mockMvc.perform(get("/api/orders/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize((int) orderRepository.count());
+        assertThat(lines).allSatisfy(line -> assertThat(line).startsWith("{").endsWith("}"));
+        assertThat(body).contains("\"id\":" + created.get(2) + ",");
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.EcOMS.controller;
+
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.metrics.SqlRecording;
+import com.example.EcOMS.repository.ProductRepository;
+import com.example.EcOMS.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static com.example.EcOMS.support.TestFixtures.orderFor;
+import static com.example.EcOMS.support.TestFixtures.saveProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void currentClientGets304AndStockChangesBumpTheETag() throws Exception {
+        Product product = saveProduct(productRepository, "Conditional item", 10);
+
+        String eTag = mockMvc.perform(get("/api/products/{id}", product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isEqualTo("W/\"0\"");
+
+        try (SqlRecording recording = SqlRecording.start()) {
+            mockMvc.perform(get("/api/products/{id}", product.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().stringValues(HttpHeaders.VARY, "Accept"))
+                    .andExpect(content().string(""));
+            assertThat(recording.count()).isZero();
+        }
+
+        orderService.createOrder(orderFor("etag@example.com", product.getId(), 2));
+
+        try (SqlRecording recording = SqlRecording.start()) {
+            mockMvc.perform(get("/api/products/{id}", product.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                    .andExpect(status().isOk())
+                    .andExpect(header().stringValues(HttpHeaders.ETAG, "W/\"1\""))
+                    .andExpect(content().string(containsString("\"stock\":8")));
+            assertThat(recording.count()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void eachEncodingRevalidatesWithTheSameWeakETag() throws Exception {
+        Product product = saveProduct(productRepository, "Conditional encoded item", 10);
+
+        String eTag = mockMvc.perform(get("/api/products/{id}", product.getId()).accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.VARY, "Accept"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).startsWith("W/");
+
+        mockMvc.perform(get("/api/products/{id}", product.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/products/{id}", Long.MAX_VALUE).accept("application/cbor"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, "Accept"));
+    }
+
+    @Test
+    void listingPagesCarryACollectionETag() throws Exception {
+        saveProduct(productRepository, "Conditional listing item", 10);
+
+        String eTag = mockMvc.perform(get("/api/products").param("sortDir", "desc"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).startsWith("W/\"");
+
+        mockMvc.perform(get("/api/products").param("sortDir", "desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        saveProduct(productRepository, "Conditional listing newcomer", 10);
+        mockMvc.perform(get("/api/products").param("sortDir", "desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void staleWriteIsRejected() {
+        Product product = saveProduct(productRepository, "Conditional stale item", 10);
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        TransactionTemplate concurrentTransaction = new TransactionTemplate(transactionManager);
+        concurrentTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        assertThatThrownBy(() -> transaction.executeWithoutResult(status -> {
+            Product stale = productRepository.findById(product.getId()).orElseThrow();
+            concurrentTransaction.executeWithoutResult(inner ->
+                    productRepository.findById(product.getId()).orElseThrow().setStock(5));
+            stale.setPrice(new BigDecimal("1.00"));
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+}
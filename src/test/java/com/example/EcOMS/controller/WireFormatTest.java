@@ -0,0 +1,119 @@
+package com.example.EcOMS.controller;
+
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.repository.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against the embedded server, as response compression happens in the connector.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:ecoms-wire-format;DB_CLOSE_DELAY=-1",
+        "server.compression.enabled=true",
+        "server.compression.min-response-size=2KB",
+        "server.compression.mime-types=application/json,application/cbor,application/x-jackson-smile"
+})
+class WireFormatTest {
+
+    private static final String PAGE = "/api/products?size=50&sortBy=id";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void seedProducts() {
+        if (productRepository.count() > 0) {
+            return;
+        }
+        for (int i = 0; i < 50; i++) {
+            Product product = new Product();
+            product.setName("Wire format product " + i);
+            product.setPrice(new BigDecimal("3.25"));
+            product.setStock(10);
+            product.setCategory("Wire");
+            product.setIsActive(true);
+            product.setCreatedAt(LocalDateTime.now());
+            productRepository.save(product);
+        }
+    }
+
+    @Test
+    void jsonStaysTheDefault() throws Exception {
+        HttpResponse<byte[]> response = get(PAGE, null, null);
+
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+                type -> assertThat(type).startsWith("application/json"));
+        assertThat(response.headers().firstValue("Content-Encoding")).isEmpty();
+    }
+
+    @Test
+    void binaryEncodingsCarryTheSamePageInFewerBytes() throws Exception {
+        HttpResponse<byte[]> json = get(PAGE, "application/json", null);
+        HttpResponse<byte[]> cbor = get(PAGE, "application/cbor", null);
+        HttpResponse<byte[]> smile = get(PAGE, "application/x-jackson-smile", null);
+
+        JsonNode expected = new ObjectMapper().readTree(json.body());
+        assertThat(cbor.headers().firstValue("Content-Type")).hasValue("application/cbor");
+        // Compared as text: the binary formats keep prices as decimals where JSON parsing yields doubles
+        assertThat(new ObjectMapper(new CBORFactory()).readTree(cbor.body()).toString()).isEqualTo(expected.toString());
+        assertThat(new ObjectMapper(new SmileFactory()).readTree(smile.body()).toString()).isEqualTo(expected.toString());
+        assertThat(cbor.body().length).isLessThan(json.body().length);
+        assertThat(smile.body().length).isLessThan(json.body().length);
+        assertThat(cbor.headers().allValues("Vary")).anySatisfy(vary -> assertThat(vary).containsIgnoringCase("accept"));
+    }
+
+    @Test
+    void largeResponsesAreCompressedWhenTheClientAcceptsIt() throws Exception {
+        HttpResponse<byte[]> plain = get(PAGE, "application/json", null);
+        HttpResponse<byte[]> gzipped = get(PAGE, "application/json", "gzip");
+
+        assertThat(gzipped.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(gzipped.body().length).isLessThan(plain.body().length);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.body()))) {
+            assertThat(new ObjectMapper().readTree(in)).isEqualTo(new ObjectMapper().readTree(plain.body()));
+        }
+
+        HttpResponse<byte[]> small = get("/api/products?size=1&sortBy=id", "application/json", "gzip");
+        assertThat(small.headers().firstValue("Content-Encoding")).isEmpty();
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept, String acceptEncoding)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (accept != null) {
+            request.header("Accept", accept);
+        }
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return response;
+    }
+}
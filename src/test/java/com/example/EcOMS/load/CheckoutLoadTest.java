@@ -0,0 +1,334 @@
+package com.example.EcOMS.load;
+
+import com.example.EcOMS.EcOmsApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end checkout load test: starts the application on an in-memory H2 database, seeds
+ * products over HTTP and drives concurrent order creation, status updates and cancellations,
+ * followed by a hot-SKU scenario where many buyers race for one product and a comparison of
+ * single order posts against {@code /api/orders/batch}. Every scenario ends with a
+ * stock-consistency check against the database.
+ *
+ * <p>Run with {@code mvn test -Dbenchmarks=true -Dtest=CheckoutLoadTest}; tune with
+ * {@code -Dload.orders}, {@code -Dload.concurrency}, {@code -Dload.products},
+ * {@code -Dload.status-update-ratio}, {@code -Dload.cancel-ratio}, {@code -Dload.hot-buyers},
+ * {@code -Dload.hot-stock}, {@code -Dload.batch-orders} and {@code -Dload.batch-size}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class CheckoutLoadTest {
+
+    private static final int ORDERS = Integer.getInteger("load.orders", 5_000);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 64);
+    private static final int PRODUCTS = Integer.getInteger("load.products", 100);
+    private static final int INITIAL_STOCK = Integer.getInteger("load.initial-stock", 1_000);
+    private static final double STATUS_UPDATE_RATIO = Double.parseDouble(System.getProperty("load.status-update-ratio", "0.2"));
+    private static final double CANCEL_RATIO = Double.parseDouble(System.getProperty("load.cancel-ratio", "0.1"));
+    private static final int HOT_BUYERS = Integer.getInteger("load.hot-buyers", 1_000);
+    private static final int HOT_STOCK = Integer.getInteger("load.hot-stock", 100);
+    private static final int BATCH_ORDERS = Integer.getInteger("load.batch-orders", 5_000);
+    private static final int BATCH_SIZE = Integer.getInteger("load.batch-size", 100);
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutLoadTest.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private final Map<Long, Integer> initialStock = new ConcurrentHashMap<>();
+
+    private ConfigurableApplicationContext context;
+    private String base;
+
+    @BeforeAll
+    void startApplication() {
+        context = new SpringApplicationBuilder(EcOmsApplication.class)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:checkout-load-" + System.nanoTime()
+                                + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                        "server.port=0",
+                        "logging.level.root=WARN",
+                        "logging.level.com.example.EcOMS.load=INFO")
+                .run();
+        base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    @AfterAll
+    void stopApplication() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    @Order(1)
+    void mixedCheckoutTraffic() throws Exception {
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            productIds.add(createProduct("Load item " + i, INITIAL_STOCK));
+        }
+
+        LoadReport report = new LoadReport("mixed checkout");
+        AtomicInteger next = new AtomicInteger();
+        report.start();
+        runClients(CONCURRENCY, () -> {
+            while (next.getAndIncrement() < ORDERS) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int itemCount = random.nextInt(1, 4);
+                List<Long> picked = new ArrayList<>();
+                while (picked.size() < itemCount) {
+                    Long id = productIds.get(random.nextInt(productIds.size()));
+                    if (!picked.contains(id)) {
+                        picked.add(id);
+                    }
+                }
+
+                Result created = call(report, "create", "POST", "/api/orders",
+                        orderJson(picked, random.nextInt(1, 4)));
+                if (created.status() != 201) {
+                    continue;
+                }
+
+                double roll = random.nextDouble();
+                if (roll < CANCEL_RATIO) {
+                    call(report, "cancel", "PUT", "/api/orders/" + created.body().get("id").asLong() + "/status",
+                            "{\"status\":\"CANCELLED\"}");
+                } else if (roll < CANCEL_RATIO + STATUS_UPDATE_RATIO) {
+                    call(report, "status-update", "PUT", "/api/orders/" + created.body().get("id").asLong() + "/status",
+                            "{\"status\":\"CONFIRMED\"}");
+                }
+            }
+        });
+        report.stop();
+        report.log();
+
+        assertThat(report.count("create")).isEqualTo(ORDERS);
+        assertThat(report.count("create", "INTERNAL_ERROR")).isZero();
+        // Each order is updated at most once, by the client that created it, so nothing races
+        assertThat(report.count("cancel", "OK")).isEqualTo(report.count("cancel"));
+        assertThat(report.count("status-update", "OK")).isEqualTo(report.count("status-update"));
+        assertStockConsistent();
+    }
+
+    @Test
+    @Order(2)
+    void hotSkuContention() throws Exception {
+        long hotProduct = createProduct("Hot load item", HOT_STOCK);
+
+        LoadReport report = new LoadReport("hot SKU");
+        CountDownLatch go = new CountDownLatch(1);
+        report.start();
+        runClients(HOT_BUYERS, () -> {
+            go.await();
+            call(report, "create", "POST", "/api/orders", orderJson(List.of(hotProduct), 1));
+        }, go);
+        report.stop();
+        report.log();
+
+        assertThat(report.count("create")).isEqualTo(HOT_BUYERS);
+        assertThat(report.count("create", "OK")).isEqualTo(Math.min(HOT_STOCK, HOT_BUYERS));
+        assertThat(report.count("create", "INTERNAL_ERROR")).isZero();
+        assertStockConsistent();
+    }
+
+    @Test
+    @Order(3)
+    void batchVersusSingleOrders() throws Exception {
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            productIds.add(createProduct("Batch load item " + i, 2 * BATCH_ORDERS));
+        }
+
+        LoadReport single = new LoadReport("single orders");
+        AtomicInteger nextOrder = new AtomicInteger();
+        single.start();
+        runClients(CONCURRENCY, () -> {
+            while (nextOrder.getAndIncrement() < BATCH_ORDERS) {
+                call(single, "create", "POST", "/api/orders", randomOrderJson(productIds));
+            }
+        });
+        single.stop();
+        single.log();
+
+        int batches = BATCH_ORDERS / BATCH_SIZE;
+        LoadReport batched = new LoadReport("batches of " + BATCH_SIZE + " orders");
+        AtomicInteger nextBatch = new AtomicInteger();
+        AtomicInteger batchedOrders = new AtomicInteger();
+        batched.start();
+        runClients(CONCURRENCY, () -> {
+            while (nextBatch.getAndIncrement() < batches) {
+                StringJoiner orders = new StringJoiner(",", "[", "]");
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    orders.add(randomOrderJson(productIds));
+                }
+                Result result = call(batched, "create-batch", "POST", "/api/orders/batch", orders.toString());
+                if (result.body() != null && result.body().has("succeeded")) {
+                    batchedOrders.addAndGet(result.body().get("succeeded").asInt());
+                }
+            }
+        });
+        batched.stop();
+        batched.log();
+        log.info("{} orders/s posted one at a time, {} orders/s in batches of {}",
+                "%.0f".formatted(BATCH_ORDERS / single.seconds()),
+                "%.0f".formatted(batches * BATCH_SIZE / batched.seconds()), BATCH_SIZE);
+
+        assertThat(single.count("create", "OK")).isEqualTo(BATCH_ORDERS);
+        assertThat(batched.count("create-batch", "OK")).isEqualTo(batches);
+        assertThat(batchedOrders).hasValue(batches * BATCH_SIZE);
+        assertStockConsistent();
+    }
+
+    /**
+     * Every product's seeded stock must equal what is left plus what live (non-cancelled)
+     * orders hold.
+     */
+    private void assertStockConsistent() {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Map<Long, Long> reserved = new ConcurrentHashMap<>();
+        jdbcTemplate.query("""
+                SELECT oi.product_id, SUM(oi.quantity)
+                FROM order_items oi JOIN orders o ON o.id = oi.orders_id
+                WHERE o.order_status <> 'CANCELLED'
+                GROUP BY oi.product_id""", rs -> {
+            reserved.put(rs.getLong(1), rs.getLong(2));
+        });
+
+        List<String> mismatches = new ArrayList<>();
+        initialStock.forEach((id, seeded) -> {
+            Integer stock = jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, id);
+            long held = reserved.getOrDefault(id, 0L);
+            if (stock == null || stock < 0 || stock + held != seeded) {
+                mismatches.add("product " + id + ": seeded " + seeded + ", stock " + stock + ", held by orders " + held);
+            }
+        });
+        assertThat(mismatches).as("stock of %d products", initialStock.size()).isEmpty();
+    }
+
+    private long createProduct(String name, int stock) throws Exception {
+        HttpResponse<String> response = send("POST", "/api/products", """
+                {"name":"%s","price":9.99,"stock":%d,"category":"Load"}""".formatted(name, stock));
+        long id = objectMapper.readTree(response.body()).get("id").asLong();
+        initialStock.put(id, stock);
+        return id;
+    }
+
+    private String randomOrderJson(List<Long> productIds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Long> picked = new ArrayList<>();
+        int itemCount = random.nextInt(1, 4);
+        while (picked.size() < itemCount) {
+            Long id = productIds.get(random.nextInt(productIds.size()));
+            if (!picked.contains(id)) {
+                picked.add(id);
+            }
+        }
+        return orderJson(picked, 1);
+    }
+
+    private String orderJson(List<Long> productIds, int quantity) {
+        StringBuilder items = new StringBuilder();
+        for (Long id : productIds) {
+            if (!items.isEmpty()) {
+                items.append(',');
+            }
+            items.append("{\"productId\":").append(id).append(",\"quantity\":").append(quantity).append('}');
+        }
+        return """
+                {"customerEmail":"load@example.com","customerName":"Load Buyer",
+                 "customerPhone":"+998901234567","deliveryAddress":"Tashkent, Amir Temur 1",
+                 "items":[%s]}""".formatted(items);
+    }
+
+    private Result call(LoadReport report, String operation, String method, String path, String json) {
+        long sent = System.nanoTime();
+        try {
+            HttpResponse<String> response = send(method, path, json);
+            JsonNode body = response.body().isEmpty() ? null : objectMapper.readTree(response.body());
+            String outcome = response.statusCode() < 400 ? "OK"
+                    : body != null && body.hasNonNull("error") ? body.get("error").asText()
+                    : "HTTP_" + response.statusCode();
+            report.record(operation, System.nanoTime() - sent, outcome);
+            return new Result(response.statusCode(), body);
+        } catch (IOException e) {
+            report.record(operation, System.nanoTime() - sent, "IO_ERROR");
+            return new Result(-1, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(-1, null);
+        }
+    }
+
+    private HttpResponse<String> send(String method, String path, String json) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(base + path))
+                        .header("Content-Type", "application/json")
+                        .method(method, HttpRequest.BodyPublishers.ofString(json))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void runClients(int clients, Client client) throws Exception {
+        runClients(clients, client, null);
+    }
+
+    private void runClients(int clients, Client client, CountDownLatch release) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                workers.add(executor.submit(() -> {
+                    client.run();
+                    return null;
+                }));
+            }
+            if (release != null) {
+                release.countDown();
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Client {
+        void run() throws Exception;
+    }
+
+    private record Result(int status, JsonNode body) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.EcOMS.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects per-operation latencies and outcomes from concurrent load-test clients. Tests
+ * assert on the counts; throughput, latency percentiles and the error breakdown by
+ * {@code GlobalExceptionHandler} category are logged at info.
+ */
+class LoadReport {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadReport.class);
+
+    private final String scenario;
+    private final Map<String, ConcurrentLinkedQueue<Long>> latencies = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, LongAdder>> outcomes = new ConcurrentHashMap<>();
+    private long startNanos;
+    private long elapsedNanos;
+
+    LoadReport(String scenario) {
+        this.scenario = scenario;
+    }
+
+    void start() {
+        startNanos = System.nanoTime();
+    }
+
+    void stop() {
+        elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    double seconds() {
+        return elapsedNanos / 1e9;
+    }
+
+    void record(String operation, long latencyNanos, String outcome) {
+        latencies.computeIfAbsent(operation, o -> new ConcurrentLinkedQueue<>()).add(latencyNanos);
+        outcomes.computeIfAbsent(operation, o -> new ConcurrentHashMap<>())
+                .computeIfAbsent(outcome, o -> new LongAdder())
+                .increment();
+    }
+
+    long count(String operation, String outcome) {
+        LongAdder adder = outcomes.getOrDefault(operation, Map.of()).get(outcome);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    long count(String operation) {
+        return outcomes.getOrDefault(operation, Map.of()).values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    void log() {
+        double seconds = seconds();
+        long total = latencies.values().stream().mapToLong(ConcurrentLinkedQueue::size).sum();
+        log.info("{}: {} requests in {} s ({} req/s)", scenario, total, "%.2f".formatted(seconds),
+                "%.0f".formatted(total / seconds));
+
+        for (String operation : new TreeMap<>(latencies).keySet()) {
+            long[] sorted = latencies.get(operation).stream().mapToLong(Long::longValue).sorted().toArray();
+            Map<String, Long> byOutcome = new TreeMap<>();
+            outcomes.get(operation).forEach((outcome, count) -> byOutcome.put(outcome, count.sum()));
+            log.info("{}: {}", operation, "count %d, %.0f req/s, p50 %.1f ms, p95 %.1f ms, p99 %.1f ms, outcomes %s"
+                    .formatted(sorted.length, sorted.length / seconds, percentile(sorted, 0.50),
+                            percentile(sorted, 0.95), percentile(sorted, 0.99), byOutcome));
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+}
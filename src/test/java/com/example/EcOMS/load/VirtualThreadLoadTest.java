@@ -0,0 +1,133 @@
+package com.example.EcOMS.load;
+
+import com.example.EcOMS.EcOmsApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checkout load through Tomcat on platform threads and then on virtual threads, both against
+ * the same connection pool size. Under either, every checkout must be accepted (the request
+ * limit is sized to the client concurrency) and sell exactly one unit. Throughput and latency
+ * percentiles of each mode are logged through {@link LoadReport}. Run with {@code mvn test
+ * -Dbenchmarks=true -Dtest=VirtualThreadLoadTest}; tune with {@code -Dload.requests} and
+ * {@code -Dload.concurrency}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class VirtualThreadLoadTest {
+
+    private static final int REQUESTS = Integer.getInteger("load.requests", 4_000);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 400);
+    private static final int PRODUCTS = 50;
+    private static final int STOCK = 1_000_000;
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        // The first round of each warms the JIT up; only the second is reported
+        run(false, null);
+        run(true, null);
+        LoadReport platform = new LoadReport("platform threads");
+        long platformUnitsSold = run(false, platform);
+        LoadReport virtual = new LoadReport("virtual threads");
+        long virtualUnitsSold = run(true, virtual);
+        platform.log();
+        virtual.log();
+
+        // Which mode is faster depends on the machine; both must accept every checkout and
+        // sell exactly one unit per request
+        assertThat(platform.count("checkout", "201")).isEqualTo(REQUESTS);
+        assertThat(platformUnitsSold).isEqualTo(REQUESTS);
+        assertThat(virtual.count("checkout", "201")).isEqualTo(REQUESTS);
+        assertThat(virtualUnitsSold).isEqualTo(REQUESTS);
+    }
+
+    /**
+     * Runs one round and returns the units sold. Checkouts are recorded in {@code report}
+     * unless it is null.
+     */
+    private long run(boolean virtual, LoadReport report) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(EcOmsApplication.class)
+                .properties(
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + System.nanoTime()
+                                + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                        "spring.datasource.hikari.maximum-pool-size=10",
+                        "server.tomcat.threads.max=50",
+                        "ecoms.virtual-threads.max-concurrent-requests=" + CONCURRENCY,
+                        "logging.level.root=WARN",
+                        "logging.level.com.example.EcOMS.load=INFO")
+                .run()) {
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+            List<Long> productIds = new ArrayList<>();
+            for (int i = 0; i < PRODUCTS; i++) {
+                String body = post(base + "/api/products", """
+                        {"name":"Load item %d","price":9.99,"stock":%d,"category":"Load"}""".formatted(i, STOCK)).body();
+                Matcher matcher = ID.matcher(body);
+                matcher.find();
+                productIds.add(Long.parseLong(matcher.group(1)));
+            }
+
+            LoadReport rounds = report != null ? report : new LoadReport("warm-up");
+            AtomicInteger next = new AtomicInteger();
+
+            rounds.start();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> workers = new ArrayList<>();
+                for (int w = 0; w < CONCURRENCY; w++) {
+                    workers.add(clients.submit(() -> {
+                        while (next.getAndIncrement() < REQUESTS) {
+                            long productId = productIds.get(ThreadLocalRandom.current().nextInt(PRODUCTS));
+                            long sent = System.nanoTime();
+                            int status = post(base + "/api/orders", """
+                                    {"customerEmail":"load@example.com","customerName":"Load Buyer",
+                                     "customerPhone":"+998901234567","deliveryAddress":"Tashkent, Amir Temur 1",
+                                     "items":[{"productId":%d,"quantity":1}]}""".formatted(productId)).statusCode();
+                            rounds.record("checkout", System.nanoTime() - sent, String.valueOf(status));
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+            }
+            rounds.stop();
+
+            Long remaining = context.getBean(JdbcTemplate.class)
+                    .queryForObject("SELECT SUM(stock) FROM products", Long.class);
+            return (long) PRODUCTS * STOCK - remaining;
+        }
+    }
+
+    private HttpResponse<String> post(String url, String json) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(url))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.EcOMS.metrics;
+
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.exceptionnn.InsufficientStockException;
+import com.example.EcOMS.repository.ProductRepository;
+import com.example.EcOMS.service.OrderService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static com.example.EcOMS.support.TestFixtures.orderFor;
+import static com.example.EcOMS.support.TestFixtures.saveProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ServiceMetricsTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void createOrderIsTimedWithItsStatementCount() {
+        Product product = saveProduct(productRepository, "Metrics item", 5);
+        long before = timer("createOrder", "success") == null ? 0 : timer("createOrder", "success").count();
+
+        orderService.createOrder(orderFor("metrics@example.com", product.getId(), 1));
+
+        assertThat(timer("createOrder", "success").count()).isEqualTo(before + 1);
+        DistributionSummary statements = meterRegistry.find("ecoms.service.statements")
+                .tag("service", "OrderService")
+                .tag("operation", "createOrder")
+                .summary();
+        assertThat(statements).isNotNull();
+        assertThat(statements.max()).isGreaterThan(0);
+    }
+
+    @Test
+    void rejectionsAreCounted() {
+        Product product = saveProduct(productRepository, "Metrics item", 1);
+        double before = meterRegistry.counter("ecoms.orders.rejected", "reason", "insufficient_stock").count();
+
+        assertThatThrownBy(() -> orderService.createOrder(orderFor("metrics@example.com", product.getId(), 2)))
+                .isInstanceOf(InsufficientStockException.class);
+
+        assertThat(meterRegistry.counter("ecoms.orders.rejected", "reason", "insufficient_stock").count())
+                .isEqualTo(before + 1);
+        assertThat(timer("createOrder", "InsufficientStockException")).isNotNull();
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return meterRegistry.find("ecoms.service.operation")
+                .tag("service", "OrderService")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .timer();
+    }
+}
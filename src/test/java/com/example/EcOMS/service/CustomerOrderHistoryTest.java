@@ -0,0 +1,80 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.OrderDTO;
+import com.example.EcOMS.dto.OrderItemRequest;
+import com.example.EcOMS.dto.PageResponse;
+import com.example.EcOMS.dto.UpdateOrderStatusRequest;
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.enums.OrderStatus;
+import com.example.EcOMS.exceptionnn.OrderNotFoundException;
+import com.example.EcOMS.metrics.SqlRecording;
+import com.example.EcOMS.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.example.EcOMS.support.TestFixtures.orderFor;
+import static com.example.EcOMS.support.TestFixtures.saveProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class CustomerOrderHistoryTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void returnsNewestOrdersFirstInABoundedNumberOfQueries() {
+        String email = UUID.randomUUID() + "@example.com";
+        List<Product> products = List.of(saveProduct(productRepository, "History A", 100),
+                saveProduct(productRepository, "History B", 100), saveProduct(productRepository, "History C", 100));
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            List<OrderItemRequest> items = new ArrayList<>();
+            products.forEach(p -> items.add(new OrderItemRequest(p.getId(), 1)));
+            created.add(orderService.createOrder(orderFor(email, items)).getId());
+        }
+
+        SqlRecording sql = SqlRecording.start();
+        PageResponse<OrderDTO> page = orderService.getOrdersByCustomerEmail(email, 0, 5);
+        sql.close();
+
+        // Page of ids, live count, archive count and the rows of the page
+        assertThat(sql.count("select", "")).isLessThanOrEqualTo(4);
+        assertThat(page.getTotalElements()).isEqualTo(12);
+        assertThat(page.getContent()).extracting(OrderDTO::getId)
+                .containsExactlyElementsOf(created.reversed().subList(0, 5));
+        assertThat(page.getContent().get(0).getOrderItems()).extracting("productName")
+                .containsExactlyInAnyOrder("History A", "History B", "History C");
+    }
+
+    @Test
+    void statusChangesDoNotReorderTheHistory() {
+        String email = UUID.randomUUID() + "@example.com";
+        Product product = saveProduct(productRepository, "History D", 100);
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            created.add(orderService.createOrder(orderFor(email, product.getId(), 1)).getId());
+        }
+
+        orderService.updateOrderStatus(created.get(0), new UpdateOrderStatusRequest(OrderStatus.CONFIRMED));
+
+        assertThat(orderService.getOrdersByCustomerEmail(email, 0, 10).getContent())
+                .extracting(OrderDTO::getId)
+                .containsExactlyElementsOf(created.reversed());
+    }
+
+    @Test
+    void unknownCustomerIsNotFound() {
+        assertThatThrownBy(() -> orderService.getOrdersByCustomerEmail("nobody@example.com", 0, 10))
+                .isInstanceOf(OrderNotFoundException.class);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.entity.IdempotencyKey;
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.exceptionnn.IdempotencyKeyConflictException;
+import com.example.EcOMS.repository.IdempotencyKeyRepository;
+import com.example.EcOMS.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.example.EcOMS.support.TestFixtures.orderFor;
+import static com.example.EcOMS.support.TestFixtures.saveProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void concurrentRetriesCreateASingleOrder() throws Exception {
+        int retries = 8;
+        Product product = saveProduct(productRepository, "Idempotent item", 10);
+        String key = UUID.randomUUID().toString();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<IdempotencyService.Outcome>> outcomes = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(retries)) {
+            Callable<IdempotencyService.Outcome> submit = () -> {
+                start.await();
+                return idempotencyService.createOrder(key, orderFor("idempotent@example.com", product.getId(), 2));
+            };
+            for (int i = 0; i < retries; i++) {
+                outcomes.add(executor.submit(submit));
+            }
+            start.countDown();
+        }
+
+        List<IdempotencyService.Outcome> results = new ArrayList<>();
+        for (Future<IdempotencyService.Outcome> outcome : outcomes) {
+            results.add(outcome.get());
+        }
+
+        assertThat(results).extracting(o -> o.order().getId()).containsOnly(results.get(0).order().getId());
+        assertThat(results).filteredOn(o -> !o.replayed()).hasSize(1);
+        assertThat(productRepository.findStockById(product.getId())).isEqualTo(8);
+        assertThat(idempotencyKeyRepository.findById(key))
+                .hasValueSatisfying(k -> assertThat(k.getOrderId()).isEqualTo(results.get(0).order().getId()));
+    }
+
+    @Test
+    void keyPastRetentionButNotYetPurgedCanBeReused() {
+        Product product = saveProduct(productRepository, "Idempotent expired item", 10);
+        String key = UUID.randomUUID().toString();
+        idempotencyKeyRepository.saveAndFlush(new IdempotencyKey(key, "0".repeat(64), -1L, "{}",
+                LocalDateTime.now().minusDays(2)));
+
+        IdempotencyService.Outcome outcome =
+                idempotencyService.createOrder(key, orderFor("idempotent@example.com", product.getId(), 1));
+
+        assertThat(outcome.replayed()).isFalse();
+        assertThat(productRepository.findStockById(product.getId())).isEqualTo(9);
+        assertThat(idempotencyKeyRepository.findById(key))
+                .hasValueSatisfying(k -> assertThat(k.getOrderId()).isEqualTo(outcome.order().getId()));
+    }
+
+    @Test
+    void reusingAKeyForADifferentRequestIsRejected() {
+        Product product = saveProduct(productRepository, "Idempotent conflict item", 10);
+        String key = UUID.randomUUID().toString();
+
+        idempotencyService.createOrder(key, orderFor("idempotent@example.com", product.getId(), 1));
+
+        assertThatThrownBy(() -> idempotencyService.createOrder(key, orderFor("idempotent@example.com", product.getId(), 3)))
+                .isInstanceOf(IdempotencyKeyConflictException.class);
+        assertThat(productRepository.findStockById(product.getId())).isEqualTo(9);
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.entity.OrderItem;
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.enums.ProductChangeType;
+import com.example.EcOMS.exceptionnn.InsufficientStockException;
+import com.example.EcOMS.repository.ProductChangeRepository;
+import com.example.EcOMS.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.EcOMS.support.TestFixtures.saveProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checkout reservation throughput of the unlocked read-modify-write that createOrder used
+ * before {@link InventoryService}, the locked check-and-decrement the batch endpoint uses,
+ * and the conditional decrements createOrder uses. Each reservation runs in its own
+ * transaction followed by the outbox insert that createOrder does while the rows are still
+ * locked. Run with {@code mvn test -Dbenchmarks=true -Dtest=InventoryReservationBenchmarkTest}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class InventoryReservationBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryReservationBenchmarkTest.class);
+
+    private static final int THREADS = 32;
+    private static final int ORDERS = 4_000;
+    private static final int WARMUP_ORDERS = 1_000;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductChangeRepository productChangeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void flashSaleOnOneProduct() throws Exception {
+        compare("flash sale", 1, 1);
+    }
+
+    @Test
+    void ordersSpreadOverACatalog() throws Exception {
+        compare("catalog", 200, 3);
+    }
+
+    private void compare(String scenario, int catalogSize, int itemsPerOrder) throws Exception {
+        Map<String, Strategy> strategies = Map.of(
+                "read-modify-write", this::readModifyWrite,
+                "locked check-and-decrement", this::lockAndReserve,
+                "conditional decrement", this::conditionalDecrement);
+        for (String name : List.of("read-modify-write", "locked check-and-decrement", "conditional decrement")) {
+            run(scenario, name, strategies.get(name), catalogSize, itemsPerOrder, WARMUP_ORDERS, false);
+            Result result = run(scenario, name, strategies.get(name), catalogSize, itemsPerOrder, ORDERS, true);
+            if (!name.equals("read-modify-write")) {
+                assertThat(result.oversold()).as("%s units oversold", name).isZero();
+            }
+        }
+    }
+
+    private Result run(String scenario, String name, Strategy strategy, int catalogSize, int itemsPerOrder,
+                       int orders, boolean report) throws Exception {
+        // Stock for a third of the orders, so the tail of the run exercises rejections too
+        int stockPerProduct = Math.max(1, orders * itemsPerOrder / catalogSize / 3);
+        List<Long> catalog = new ArrayList<>();
+        for (int i = 0; i < catalogSize; i++) {
+            catalog.add(saveProduct(productRepository, "Bench " + name + " " + i, stockPerProduct).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            List<Long> productIds = new Random(i).ints(0, catalogSize).distinct().limit(itemsPerOrder)
+                    .mapToObj(catalog::get).toList();
+            futures.add(executor.submit(() -> {
+                start.await();
+                long startedAt = System.nanoTime();
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        strategy.reserve(productIds);
+                        productChangeRepository.insertSnapshots(productIds, ProductChangeType.STOCK);
+                    });
+                    reserved.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    // Rejected orders count towards throughput like accepted ones
+                } catch (ConcurrencyFailureException e) {
+                    failed.incrementAndGet();
+                }
+                latencies.add(System.nanoTime() - startedAt);
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        executor.shutdown();
+
+        long unitsSold = reserved.get() * (long) itemsPerOrder;
+        long stockLeft = catalog.stream().mapToLong(productRepository::findStockById).sum();
+        long oversold = unitsSold - ((long) stockPerProduct * catalogSize - stockLeft);
+        Result result = new Result(orders / seconds, oversold);
+        if (report) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            log.info("{} / {}: {}", scenario, name,
+                    "%d orders, %d reserved, %d failed, %.0f orders/s, p50 %.1f ms, p99 %.1f ms, %d units oversold"
+                            .formatted(orders, reserved.get(), failed.get(), result.ordersPerSecond(),
+                                    percentile(sorted, 0.50), percentile(sorted, 0.99), oversold));
+        }
+        return result;
+    }
+
+    /**
+     * The pre-InventoryService path: unlocked reads, then writes of the stock it read. Plain
+     * JDBC, as products had no version column then.
+     */
+    private void readModifyWrite(List<Long> productIds) {
+        List<Object[]> args = new ArrayList<>();
+        for (Long id : productIds.stream().sorted().toList()) {
+            int stock = jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, id);
+            if (stock < 1) {
+                throw new InsufficientStockException("Product is out of stock: " + id);
+            }
+            args.add(new Object[]{stock - 1, id});
+        }
+        jdbcTemplate.batchUpdate("UPDATE products SET stock = ? WHERE id = ?", args);
+    }
+
+    private void lockAndReserve(List<Long> productIds) {
+        inventoryService.reserveLocked(items(inventoryService.lockProducts(productIds)));
+        entityManager.flush();
+    }
+
+    private void conditionalDecrement(List<Long> productIds) {
+        inventoryService.reserve(items(inventoryService.loadProducts(productIds)));
+    }
+
+    private static List<OrderItem> items(Map<Long, Product> products) {
+        return products.values().stream()
+                .map(product -> {
+                    OrderItem item = new OrderItem();
+                    item.setProduct(product);
+                    item.setQuantity(1);
+                    return item;
+                })
+                .toList();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    @FunctionalInterface
+    private interface Strategy {
+        void reserve(List<Long> productIds);
+    }
+
+    private record Result(double ordersPerSecond, long oversold) {
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.CreateOrderRequest;
+import com.example.EcOMS.dto.OrderItemRequest;
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.exceptionnn.InsufficientStockException;
+import com.example.EcOMS.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.EcOMS.support.TestFixtures.orderFor;
+import static com.example.EcOMS.support.TestFixtures.saveProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class InventoryServiceConcurrencyTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        int stock = 50;
+        int buyers = 200;
+        Product product = saveProduct(productRepository, "Flash sale item", stock);
+
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < buyers; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    orderService.createOrder(orderFor("buyer@example.com", product.getId(), 1));
+                    succeeded.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(succeeded.get()).isEqualTo(stock);
+        assertThat(rejected.get()).isEqualTo(buyers - stock);
+        assertThat(productRepository.findStockById(product.getId())).isZero();
+    }
+
+    @Test
+    void reservationIsAllOrNothing() {
+        Product available = saveProduct(productRepository, "Available item", 10);
+        Product soldOut = saveProduct(productRepository, "Sold out item", 0);
+
+        CreateOrderRequest request = orderFor("buyer@example.com", available.getId(), 3);
+        request.getItems().add(new OrderItemRequest(soldOut.getId(), 1));
+
+        assertThatThrownBy(() -> orderService.createOrder(request))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining("Sold out item");
+
+        assertThat(productRepository.findStockById(available.getId())).isEqualTo(10);
+        assertThat(productRepository.findStockById(soldOut.getId())).isZero();
+    }
+}
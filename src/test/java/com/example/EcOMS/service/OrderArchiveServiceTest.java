@@ -0,0 +1,147 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.OrderDTO;
+import com.example.EcOMS.dto.PageResponse;
+import com.example.EcOMS.dto.SalesStatisticsDTO;
+import com.example.EcOMS.dto.UpdateOrderStatusRequest;
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.enums.OrderStatus;
+import com.example.EcOMS.exceptionnn.InvalidOrderOperationException;
+import com.example.EcOMS.repository.OrderArchiveRepository;
+import com.example.EcOMS.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static com.example.EcOMS.support.TestFixtures.orderFor;
+import static com.example.EcOMS.support.TestFixtures.saveProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class OrderArchiveServiceTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderArchiveRepository orderArchiveRepository;
+
+    @Autowired
+    private SalesStatisticsService salesStatisticsService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void oldTerminalOrdersMoveToTheArchiveAndStayReadable() {
+        String category = "Archive-" + UUID.randomUUID();
+        String email = UUID.randomUUID() + "@example.com";
+        Product product = saveProduct(productRepository, "Archive item", "6.00", 100, category);
+
+        Long delivered = placeOrder(email, product, 2);
+        Long cancelled = placeOrder(email, product, 1);
+        Long pending = placeOrder(email, product, 3);
+        Long recent = placeOrder(email, product, 1);
+        orderService.updateOrderStatus(delivered, new UpdateOrderStatusRequest(OrderStatus.DELIVERED));
+        orderService.updateOrderStatus(cancelled, new UpdateOrderStatusRequest(OrderStatus.CANCELLED));
+        orderService.updateOrderStatus(recent, new UpdateOrderStatusRequest(OrderStatus.DELIVERED));
+        jdbcTemplate.update("UPDATE orders SET create_at = ? WHERE id IN (?, ?, ?)",
+                LocalDateTime.now().minusDays(100), delivered, cancelled, pending);
+
+        salesStatisticsService.rebuild();
+        List<SalesStatisticsDTO> before = statistics(category);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OrderArchiveService archiver = new OrderArchiveService(orderArchiveRepository, transactionTemplate,
+                true, Duration.ofDays(90), 1, 1_000, registry);
+        assertThat(archiver.archiveOldOrders()).isGreaterThanOrEqualTo(2);
+
+        assertThat(liveCount(delivered)).isZero();
+        assertThat(liveCount(cancelled)).isZero();
+        assertThat(liveCount(pending)).isOne();
+        assertThat(liveCount(recent)).isOne();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_items WHERE orders_id = ?",
+                Integer.class, delivered)).isZero();
+        assertThat(registry.get("ecoms.order-archive.archived").counter().count()).isGreaterThanOrEqualTo(2);
+        assertThat(registry.get("ecoms.order-archive.backlog").gauge().value()).isZero();
+
+        OrderDTO archived = orderService.getOrderById(delivered);
+        assertThat(archived.getOrderStatus()).isEqualTo(OrderStatus.DELIVERED);
+        assertThat(archived.getOrderItems()).singleElement()
+                .satisfies(item -> assertThat(item.getQuantity()).isEqualTo(2));
+
+        PageResponse<OrderDTO> first = orderService.getOrdersByCustomerEmail(email, 0, 3);
+        PageResponse<OrderDTO> second = orderService.getOrdersByCustomerEmail(email, 1, 3);
+        assertThat(first.getTotalElements()).isEqualTo(4L);
+        assertThat(first.getTotalPages()).isEqualTo(2);
+        assertThat(first.getContent()).extracting(OrderDTO::getId).containsExactly(recent, pending, cancelled);
+        assertThat(second.getContent()).extracting(OrderDTO::getId).containsExactly(delivered);
+        assertThat(second.isLast()).isTrue();
+
+        assertThatThrownBy(() -> orderService.deleteOrder(cancelled))
+                .isInstanceOf(InvalidOrderOperationException.class)
+                .hasMessageContaining("archived");
+
+        salesStatisticsService.rebuild();
+        assertThat(statistics(category)).usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(before);
+    }
+
+    @Test
+    void archivedOrdersKeepTheirPlaceInTheCustomerHistory() {
+        String email = UUID.randomUUID() + "@example.com";
+        Product product = saveProduct(productRepository, "Archive history item", 100);
+
+        Long older = placeOrder(email, product, 1);
+        Long archivedLater = placeOrder(email, product, 1);
+        Long newest = placeOrder(email, product, 1);
+        orderService.updateOrderStatus(archivedLater, new UpdateOrderStatusRequest(OrderStatus.DELIVERED));
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("UPDATE orders SET placed_at = ? WHERE id = ?", now.minusDays(300), older);
+        jdbcTemplate.update("UPDATE orders SET placed_at = ?, create_at = ? WHERE id = ?",
+                now.minusDays(200), now.minusDays(100), archivedLater);
+
+        OrderArchiveService archiver = new OrderArchiveService(orderArchiveRepository, transactionTemplate,
+                true, Duration.ofDays(90), 1_000, 1_000, new SimpleMeterRegistry());
+        archiver.archiveOldOrders();
+        assertThat(liveCount(archivedLater)).isZero();
+
+        assertThat(orderService.getOrdersByCustomerEmail(email, 0, 10).getContent())
+                .extracting(OrderDTO::getId).containsExactly(newest, archivedLater, older);
+        assertThat(orderService.getOrdersByCustomerEmail(email, 0, 2).getContent())
+                .extracting(OrderDTO::getId).containsExactly(newest, archivedLater);
+        assertThat(orderService.getOrdersByCustomerEmail(email, 1, 2).getContent())
+                .extracting(OrderDTO::getId).containsExactly(older);
+    }
+
+    private List<SalesStatisticsDTO> statistics(String category) {
+        LocalDate today = LocalDate.now();
+        return salesStatisticsService.getStatistics(today.minusDays(120), today.plusDays(1), null, category);
+    }
+
+    private int liveCount(Long id) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders WHERE id = ?", Integer.class, id);
+    }
+
+    private Long placeOrder(String email, Product product, int quantity) {
+        return orderService.createOrder(orderFor(email, product.getId(), quantity)).getId();
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.BatchOrderResponse;
+import com.example.EcOMS.dto.BatchOrderResult;
+import com.example.EcOMS.dto.BulkStatusUpdateRequest;
+import com.example.EcOMS.dto.BulkStatusUpdateResponse;
+import com.example.EcOMS.dto.CreateOrderRequest;
+import com.example.EcOMS.dto.OrderItemRequest;
+import com.example.EcOMS.dto.UpdateOrderStatusRequest;
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.enums.OrderStatus;
+import com.example.EcOMS.exceptionnn.InvalidOrderOperationException;
+import com.example.EcOMS.metrics.SqlRecording;
+import com.example.EcOMS.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.EcOMS.support.TestFixtures.orderFor;
+import static com.example.EcOMS.support.TestFixtures.saveProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class OrderBatchServiceTest {
+
+    @Autowired
+    private OrderBatchService orderBatchService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void badOrdersDoNotAbortTheRestOfTheBatch() {
+        Product product = saveProduct(productRepository, "Batch item", 5);
+
+        List<CreateOrderRequest> requests = List.of(
+                orderFor("batch@example.com", product.getId(), 2),
+                orderFor("batch@example.com", product.getId(), 4),
+                orderFor("batch@example.com", Long.MAX_VALUE, 1),
+                orderFor("not-an-email", product.getId(), 1),
+                orderFor("batch@example.com", product.getId(), 3));
+
+        BatchOrderResponse response = orderBatchService.createOrders(requests);
+
+        assertThat(response.getSucceeded()).isEqualTo(2);
+        assertThat(response.getFailed()).isEqualTo(3);
+        assertThat(response.getResults()).extracting(BatchOrderResult::isSuccess)
+                .containsExactly(true, false, false, false, true);
+        assertThat(response.getResults().get(1).getError()).startsWith("Insufficient stock");
+        assertThat(response.getResults().get(2).getError()).startsWith("Product not found");
+        assertThat(response.getResults().get(3).getError()).startsWith("customerEmail:");
+
+        Long orderId = response.getResults().get(0).getOrder().getId();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM order_items WHERE orders_id = ?", Integer.class, orderId)).isEqualTo(1);
+        assertThat(productRepository.findStockById(product.getId())).isZero();
+    }
+
+    @Test
+    void batchStatementsDoNotGrowWithBatchSize() {
+        long small = statementsForBatch(2);
+        long large = statementsForBatch(200);
+
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void bulkCancellationRestoresStockOncePerProduct() {
+        Product first = saveProduct(productRepository, "Bulk cancel item", 100);
+        Product second = saveProduct(productRepository, "Bulk cancel other", 100);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(orderService.createOrder(orderFor("bulk@example.com",
+                    new OrderItemRequest(first.getId(), 2), new OrderItemRequest(second.getId(), 1))).getId());
+        }
+        Long confirmed = ids.get(0);
+        orderService.updateOrderStatus(confirmed, new UpdateOrderStatusRequest(OrderStatus.CONFIRMED));
+        List<Long> requested = new ArrayList<>(ids);
+        requested.add(Long.MAX_VALUE);
+
+        BulkStatusUpdateResponse response;
+        try (SqlRecording recording = SqlRecording.start()) {
+            response = orderBatchService.updateStatuses(
+                    new BulkStatusUpdateRequest(OrderStatus.CANCELLED, requested, null, null));
+            assertThat(recording.count("update", "products")).isEqualTo(1);
+            assertThat(recording.count("update", "orders")).isEqualTo(1);
+        }
+
+        assertThat(response.getSucceeded()).isEqualTo(19);
+        assertThat(response.getFailed()).isEqualTo(2);
+        assertThat(response.getResults().get(0).getError()).contains("Current status: CONFIRMED");
+        assertThat(response.getResults().get(20).getError()).startsWith("Order not found");
+        assertThat(productRepository.findStockById(first.getId())).isEqualTo(98);
+        assertThat(productRepository.findStockById(second.getId())).isEqualTo(99);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM orders WHERE address = 'bulk@example.com' AND order_status = 'CANCELLED'",
+                Integer.class)).isEqualTo(19);
+    }
+
+    @Test
+    void racingSingleAndBulkCancellationsRestoreStockOnce() throws Exception {
+        int orders = 20;
+        Product product = saveProduct(productRepository, "Bulk race item", orders * 2);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            ids.add(orderService.createOrder(orderFor("bulk-race@example.com", product.getId(), 2)).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger singleCancellations = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        futures.add(executor.submit(() -> {
+            start.await();
+            return orderBatchService.updateStatuses(
+                    new BulkStatusUpdateRequest(OrderStatus.CANCELLED, ids, null, null));
+        }));
+        for (Long id : ids) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    orderService.updateOrderStatus(id, new UpdateOrderStatusRequest(OrderStatus.CANCELLED));
+                    singleCancellations.incrementAndGet();
+                } catch (InvalidOrderOperationException e) {
+                    // The bulk update cancelled it first
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        BulkStatusUpdateResponse bulk = (BulkStatusUpdateResponse) futures.get(0).get(60, TimeUnit.SECONDS);
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(bulk.getSucceeded() + singleCancellations.get()).isEqualTo(orders);
+        assertThat(productRepository.findStockById(product.getId())).isEqualTo(orders * 2);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM orders WHERE address = 'bulk-race@example.com' AND order_status = 'CANCELLED'",
+                Integer.class)).isEqualTo(orders);
+    }
+
+    @Test
+    void bulkUpdateByFilterOnlyTouchesPendingMatches() {
+        Product product = saveProduct(productRepository, "Bulk filter item", 10);
+        String email = "bulk-filter-" + System.nanoTime() + "@example.com";
+        for (int i = 0; i < 3; i++) {
+            orderService.createOrder(orderFor(email, product.getId(), 1));
+        }
+
+        BulkStatusUpdateResponse response = orderBatchService.updateStatuses(
+                new BulkStatusUpdateRequest(OrderStatus.CONFIRMED, null, email, null));
+
+        assertThat(response.getSucceeded()).isEqualTo(3);
+        assertThat(productRepository.findStockById(product.getId())).isEqualTo(7);
+        assertThat(orderBatchService.updateStatuses(
+                new BulkStatusUpdateRequest(OrderStatus.CANCELLED, null, email, null)).getResults()).isEmpty();
+    }
+
+    private long statementsForBatch(int orders) {
+        Product product = saveProduct(productRepository, "Batch size item " + orders, orders);
+        List<CreateOrderRequest> requests = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            requests.add(orderFor("batch@example.com", product.getId(), 1));
+        }
+
+        SqlRecording recording = SqlRecording.start();
+        BatchOrderResponse response = orderBatchService.createOrders(requests);
+        recording.close();
+
+        assertThat(response.getSucceeded()).isEqualTo(orders);
+        assertThat(productRepository.findStockById(product.getId())).isZero();
+        return recording.count();
+    }
+}
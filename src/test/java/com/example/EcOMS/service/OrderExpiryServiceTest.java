@@ -0,0 +1,100 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.repository.OrderBatchRepository;
+import com.example.EcOMS.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.EcOMS.support.TestFixtures.orderFor;
+import static com.example.EcOMS.support.TestFixtures.saveProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class OrderExpiryServiceTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderBatchService orderBatchService;
+
+    @Autowired
+    private OrderBatchRepository orderBatchRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void expiredOrdersAreCancelledInChunksAndLockedOnesSkipped() throws Exception {
+        Product product = saveProduct(productRepository, "Expiry item", 50);
+        List<Long> stale = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            stale.add(placeOrder(product, 2));
+        }
+        Long fresh = placeOrder(product, 1);
+        jdbcTemplate.update("UPDATE orders SET create_at = ? WHERE id IN (?, ?, ?, ?, ?)",
+                LocalDateTime.now().minusDays(400), stale.get(0), stale.get(1), stale.get(2), stale.get(3), stale.get(4));
+        assertThat(productRepository.findStockById(product.getId())).isEqualTo(39);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OrderExpiryService reaper = new OrderExpiryService(orderBatchService, orderBatchRepository,
+                true, Duration.ofDays(365), 2, 10, registry);
+
+        // Another transaction, as on a second node, holds one of the expired orders
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(s -> {
+            jdbcTemplate.queryForList("SELECT id FROM orders WHERE id = ? FOR UPDATE", stale.get(0));
+            locked.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+        try {
+            assertThat(reaper.expireStaleOrders()).isEqualTo(4);
+        } finally {
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(statusOf(stale.get(0))).isEqualTo("PENDING");
+        assertThat(stale.subList(1, 5)).allSatisfy(id -> assertThat(statusOf(id)).isEqualTo("CANCELLED"));
+        assertThat(statusOf(fresh)).isEqualTo("PENDING");
+        assertThat(productRepository.findStockById(product.getId())).isEqualTo(47);
+        assertThat(registry.get("ecoms.order-expiry.expired").counter().count()).isEqualTo(4);
+        assertThat(registry.get("ecoms.order-expiry.backlog").gauge().value()).isEqualTo(1);
+
+        assertThat(reaper.expireStaleOrders()).isEqualTo(1);
+        assertThat(productRepository.findStockById(product.getId())).isEqualTo(49);
+    }
+
+    private String statusOf(Long id) {
+        return jdbcTemplate.queryForObject("SELECT order_status FROM orders WHERE id = ?", String.class, id);
+    }
+
+    private Long placeOrder(Product product, int quantity) {
+        return orderService.createOrder(orderFor("expiry@example.com", product.getId(), quantity)).getId();
+    }
+}
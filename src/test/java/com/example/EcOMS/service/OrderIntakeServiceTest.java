@@ -0,0 +1,173 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.BatchOrderResponse;
+import com.example.EcOMS.dto.BatchOrderResult;
+import com.example.EcOMS.dto.CreateOrderRequest;
+import com.example.EcOMS.dto.OrderIntakeStatus;
+import com.example.EcOMS.dto.OrderItemRequest;
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.enums.OrderIntakeState;
+import com.example.EcOMS.exceptionnn.OrderIntakeRejectedException;
+import com.example.EcOMS.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.example.EcOMS.support.TestFixtures.orderFor;
+import static com.example.EcOMS.support.TestFixtures.saveProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {"ecoms.order-intake.enabled=true", "ecoms.order-intake.hot-products=1"})
+class OrderIntakeServiceTest {
+
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void hotSkuOrdersNeverOversell() throws Exception {
+        int orders = 100;
+        Product product = saveProduct(productRepository, "Hot intake item", 60);
+
+        List<Future<OrderIntakeStatus>> submitted = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < orders; i++) {
+                submitted.add(executor.submit(() -> orderIntakeService.submit(orderFor("intake@example.com", product.getId(), 1))));
+            }
+        }
+
+        List<OrderIntakeStatus> finished = new ArrayList<>();
+        for (Future<OrderIntakeStatus> future : submitted) {
+            finished.add(awaitCompletion(future.get().getHandle()));
+        }
+
+        Map<OrderIntakeState, Long> byState = finished.stream()
+                .collect(Collectors.groupingBy(OrderIntakeStatus::getState, Collectors.counting()));
+        assertThat(byState).containsEntry(OrderIntakeState.ACCEPTED, 60L)
+                .containsEntry(OrderIntakeState.REJECTED, 40L);
+        assertThat(finished).filteredOn(s -> s.getState() == OrderIntakeState.REJECTED)
+                .allSatisfy(s -> assertThat(s.getError()).containsIgnoringCase("stock"));
+        assertThat(productRepository.findStockById(product.getId())).isZero();
+    }
+
+    @Test
+    void fullShardRejectsNewOrders() throws Exception {
+        CountDownLatch processing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        OrderBatchService batchService = mock(OrderBatchService.class);
+        when(batchService.createOrders(anyList())).thenAnswer(invocation -> {
+            processing.countDown();
+            release.await();
+            List<CreateOrderRequest> requests = invocation.getArgument(0);
+            return new BatchOrderResponse(0, requests.size(), requests.stream()
+                    .map(r -> new BatchOrderResult(requests.indexOf(r), false, null, "Rejected"))
+                    .toList());
+        });
+
+        OrderIntakeService intake = new OrderIntakeService(batchService, mock(OrderService.class), true,
+                1, 1, 1, Duration.ofMinutes(1), Duration.ofSeconds(5), 1000, Set.of(1L), new SimpleMeterRegistry());
+        intake.afterPropertiesSet();
+        try {
+            intake.submit(orderFor("intake@example.com", 1L, 1));
+            assertThat(processing.await(5, TimeUnit.SECONDS)).isTrue();
+            intake.submit(orderFor("intake@example.com", 1L, 1));
+
+            assertThatThrownBy(() -> intake.submit(orderFor("intake@example.com", 1L, 1)))
+                    .isInstanceOf(OrderIntakeRejectedException.class);
+        } finally {
+            release.countDown();
+            intake.destroy();
+        }
+    }
+
+    @Test
+    void cartsWithAHotProductShareOneWorker() throws Exception {
+        Set<String> hotWorkers = ConcurrentHashMap.newKeySet();
+        Set<String> allWorkers = ConcurrentHashMap.newKeySet();
+        OrderBatchService batchService = mock(OrderBatchService.class);
+        when(batchService.createOrders(anyList())).thenAnswer(invocation -> {
+            List<CreateOrderRequest> requests = invocation.getArgument(0);
+            String worker = Thread.currentThread().getName();
+            allWorkers.add(worker);
+            if (requests.stream().flatMap(r -> r.getItems().stream()).anyMatch(i -> i.getProductId() >= 100)) {
+                hotWorkers.add(worker);
+            }
+            List<BatchOrderResult> results = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                results.add(new BatchOrderResult(i, false, null, "Rejected"));
+            }
+            return new BatchOrderResponse(0, requests.size(), results);
+        });
+
+        OrderIntakeService intake = new OrderIntakeService(batchService, mock(OrderService.class), true,
+                4, 100, 1, Duration.ofMinutes(1), Duration.ofSeconds(5), 1000, Set.of(100L, 101L),
+                new SimpleMeterRegistry());
+        intake.afterPropertiesSet();
+        List<String> handles = new ArrayList<>();
+        try {
+            for (long other = 1; other <= 8; other++) {
+                handles.add(intake.submit(orderFor("intake@example.com", other, 1)).getHandle());
+                // The lowest id of these carts is never hot, so lowest-id routing would spread them
+                handles.add(intake.submit(orderFor("intake@example.com",
+                        new OrderItemRequest(other, 1), new OrderItemRequest(100 + other % 2, 1))).getHandle());
+            }
+        } finally {
+            intake.destroy();
+        }
+
+        assertThat(handles).allSatisfy(handle ->
+                assertThat(intake.getStatus(handle).getState()).isEqualTo(OrderIntakeState.REJECTED));
+        assertThat(allWorkers).hasSizeGreaterThan(1);
+        assertThat(hotWorkers).hasSize(1);
+    }
+
+    @Test
+    void enablingIntakeWithoutHotProductsFailsFast() {
+        assertThatThrownBy(() -> new OrderIntakeService(mock(OrderBatchService.class), mock(OrderService.class), true,
+                4, 100, 1, Duration.ofMinutes(1), Duration.ofSeconds(5), 1000, Set.of(), new SimpleMeterRegistry()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("hot-products");
+    }
+
+    @Test
+    void disabledIntakeRejectsOrders() {
+        OrderIntakeService intake = new OrderIntakeService(mock(OrderBatchService.class), mock(OrderService.class),
+                false, 4, 100, 1, Duration.ofMinutes(1), Duration.ofSeconds(5), 1000, Set.of(),
+                new SimpleMeterRegistry());
+        intake.afterPropertiesSet();
+
+        assertThatThrownBy(() -> intake.submit(orderFor("intake@example.com", 1L, 1)))
+                .isInstanceOf(OrderIntakeRejectedException.class)
+                .hasMessageContaining("disabled");
+    }
+
+    private OrderIntakeStatus awaitCompletion(String handle) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        OrderIntakeStatus status = orderIntakeService.getStatus(handle);
+        while (status.getState() == OrderIntakeState.QUEUED && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            status = orderIntakeService.getStatus(handle);
+        }
+        return status;
+    }
+}
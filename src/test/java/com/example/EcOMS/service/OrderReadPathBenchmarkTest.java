@@ -0,0 +1,118 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.OrderDTO;
+import com.example.EcOMS.dto.OrderItemRequest;
+import com.example.EcOMS.entity.Order;
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.example.EcOMS.support.TestFixtures.orderFor;
+import static com.example.EcOMS.support.TestFixtures.saveProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Compares the entity read path (fetch join, hydration, dirty-tracking snapshots, then
+ * convertToDTO) against the projection path. Time and allocation per read are logged for
+ * both; the projection must allocate less. Run with {@code mvn test -Dbenchmarks=true
+ * -Dtest=OrderReadPathBenchmarkTest}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class OrderReadPathBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderReadPathBenchmarkTest.class);
+
+    private static final int ORDERS = 100;
+    private static final int ITEMS_PER_ORDER = 8;
+    private static final int ROUNDS = 200;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void projectionAgainstEntityHydration() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            products.add(saveProduct(productRepository, "Read path item " + i, 1_000_000));
+        }
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            List<OrderItemRequest> items = new ArrayList<>();
+            products.forEach(p -> items.add(new OrderItemRequest(p.getId(), 1)));
+            ids.add(orderService.createOrder(orderFor("reader@example.com", items)).getId());
+        }
+
+        Supplier<List<OrderDTO>> entityPath = () -> transactionTemplate.execute(status ->
+                entityManager.createQuery("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems oi " +
+                                "LEFT JOIN FETCH oi.product WHERE o.id IN :ids", Order.class)
+                        .setParameter("ids", ids)
+                        .getResultList().stream()
+                        .map(orderService::convertToDTO)
+                        .toList());
+        Supplier<List<OrderDTO>> projectionPath = () -> orderService.loadOrderDTOs(ids);
+
+        assertThat(projectionPath.get())
+                .extracting(OrderDTO::getId, OrderDTO::getTotalPrice, dto -> dto.getOrderItems().size())
+                .containsExactlyInAnyOrderElementsOf(entityPath.get().stream()
+                        .map(dto -> tuple(dto.getId(), dto.getTotalPrice(),
+                                dto.getOrderItems().size()))
+                        .toList());
+
+        // First pass warms both paths up; only the second is compared
+        measure(entityPath);
+        measure(projectionPath);
+        Measurement entity = measure(entityPath);
+        Measurement projection = measure(projectionPath);
+        log.info("entity: {}", entity);
+        log.info("projection: {}", projection);
+
+        assertThat(projection.bytesPerRead()).isLessThan(entity.bytesPerRead());
+    }
+
+    private Measurement measure(Supplier<List<OrderDTO>> path) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            path.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        return new Measurement(elapsed / 1e6 / ROUNDS,
+                (threads.getThreadAllocatedBytes(threadId) - allocatedBefore) / ROUNDS);
+    }
+
+    private record Measurement(double millisPerRead, long bytesPerRead) {
+
+        @Override
+        public String toString() {
+            return "%.2f ms/read, %.1f KB allocated/read (%d orders x %d items)"
+                    .formatted(millisPerRead, bytesPerRead / 1024.0, ORDERS, ITEMS_PER_ORDER);
+        }
+    }
+}
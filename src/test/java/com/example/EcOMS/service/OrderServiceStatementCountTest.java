@@ -0,0 +1,73 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.CreateOrderRequest;
+import com.example.EcOMS.dto.OrderItemRequest;
+import com.example.EcOMS.metrics.SqlRecording;
+import com.example.EcOMS.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.EcOMS.support.TestFixtures.orderFor;
+import static com.example.EcOMS.support.TestFixtures.saveProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class OrderServiceStatementCountTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void productStatementsDoNotGrowWithCartSize() {
+        long[] small = productStatementsForCart(1);
+        long[] large = productStatementsForCart(30);
+
+        assertThat(small).containsExactly(1, 1);
+        assertThat(large).containsExactly(small);
+    }
+
+    @Test
+    void orderItemsAreInsertedInOneBatch() {
+        long[] small = orderInsertsForCart(1);
+        long[] large = orderInsertsForCart(30);
+
+        assertThat(small).containsExactly(1, 1);
+        assertThat(large).containsExactly(small);
+    }
+
+    private long[] productStatementsForCart(int lines) {
+        SqlRecording sql = recordCheckout(lines);
+        return new long[]{
+                sql.count("select", "products"),
+                sql.count("update", "products")
+        };
+    }
+
+    private long[] orderInsertsForCart(int lines) {
+        SqlRecording sql = recordCheckout(lines);
+        return new long[]{
+                sql.count("insert", "into orders"),
+                sql.count("insert", "into order_items")
+        };
+    }
+
+    private SqlRecording recordCheckout(int lines) {
+        List<OrderItemRequest> items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            items.add(new OrderItemRequest(saveProduct(productRepository, "Cart item " + i, 100).getId(), 1));
+        }
+        CreateOrderRequest request = orderFor("cart@example.com", items);
+
+        SqlRecording sql = SqlRecording.start();
+        orderService.createOrder(request);
+        sql.close();
+        return sql;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.CreateProductRequest;
+import com.example.EcOMS.dto.OrderItemRequest;
+import com.example.EcOMS.dto.ProductDTO;
+import com.example.EcOMS.dto.UpdateProductRequest;
+import com.example.EcOMS.metrics.SqlRecording;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.EcOMS.support.TestFixtures.orderFor;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProductCacheTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Test
+    void repeatedReadsAreServedFromTheCache() {
+        ProductDTO created = createProduct(5);
+        productCache.evict(created.getId());
+
+        productService.getProductById(created.getId());
+        long hits = productCache.stats().hitCount();
+
+        SqlRecording sql = SqlRecording.start();
+        productService.getProductById(created.getId());
+        sql.close();
+
+        assertThat(sql.count("select", "products")).isZero();
+        assertThat(productCache.stats().hitCount()).isEqualTo(hits + 1);
+    }
+
+    @Test
+    void updatesAndOrdersInvalidateTheCachedProduct() {
+        ProductDTO created = createProduct(5);
+        assertThat(productService.getProductById(created.getId()).getStock()).isEqualTo(5);
+
+        UpdateProductRequest update = new UpdateProductRequest();
+        update.setPrice(new BigDecimal("42.00"));
+        productService.updateProduct(created.getId(), update);
+        assertThat(productService.getProductById(created.getId()).getPrice()).isEqualByComparingTo("42.00");
+
+        List<OrderItemRequest> items = new ArrayList<>();
+        items.add(new OrderItemRequest(created.getId(), 2));
+        orderService.createOrder(orderFor("cache@example.com", items));
+        assertThat(productService.getProductById(created.getId()).getStock()).isEqualTo(3);
+    }
+
+    private ProductDTO createProduct(int stock) {
+        return productService.createProduct(
+                new CreateProductRequest("Cached item", new BigDecimal("10.00"), stock, "Test"));
+    }
+}
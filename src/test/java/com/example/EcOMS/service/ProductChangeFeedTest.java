@@ -0,0 +1,294 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.CreateProductRequest;
+import com.example.EcOMS.dto.ProductChangeEvent;
+import com.example.EcOMS.dto.ProductDTO;
+import com.example.EcOMS.dto.UpdateProductRequest;
+import com.example.EcOMS.enums.ProductChangeType;
+import com.example.EcOMS.repository.ProductChangeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.EcOMS.support.TestFixtures.orderFor;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductChangeFeedTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductChangeFeed productChangeFeed;
+
+    @Autowired
+    private ProductChangeRepository productChangeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void rapidChangesToAProductAreCoalesced() {
+        ProductChangeFeed feed = feed(Duration.ofDays(1));
+        RecordingListener listener = new RecordingListener();
+        feed.subscribe(null, listener);
+
+        ProductDTO product = createProduct("Feed item");
+        rename(product.getId(), "Feed item renamed");
+        orderService.createOrder(orderFor("feed@example.com", product.getId(), 3));
+        feed.relay();
+
+        List<ProductChangeEvent> changes = listener.changesOf(product.getId());
+        assertThat(changes).singleElement().satisfies(change -> {
+            assertThat(change.getChangeType()).isEqualTo(ProductChangeType.STOCK);
+            assertThat(change.getName()).isEqualTo("Feed item renamed");
+            assertThat(change.getStock()).isEqualTo(7);
+        });
+    }
+
+    @Test
+    void resumingClientGetsTheLatestStateOfEachChangedProduct() {
+        long before = productChangeRepository.findMaxId();
+        List<ProductDTO> products = List.of(createProduct("Resume A"), createProduct("Resume B"), createProduct("Resume C"));
+        products.forEach(p -> rename(p.getId(), p.getName() + " v2"));
+        ProductChangeFeed feed = feed(Duration.ofDays(1));
+        feed.relay();
+
+        RecordingListener listener = new RecordingListener();
+        feed.subscribe(before, listener);
+
+        List<ProductChangeEvent> replayed = listener.changes.stream()
+                .filter(c -> products.stream().anyMatch(p -> p.getId().equals(c.getProductId())))
+                .toList();
+        assertThat(replayed).extracting(ProductChangeEvent::getName)
+                .containsExactly("Resume A v2", "Resume B v2", "Resume C v2");
+        assertThat(listener.changes).extracting(ProductChangeEvent::getId).isSorted();
+        assertThat(listener.resets).isEmpty();
+    }
+
+    @Test
+    void clientBehindTheRetainedOutboxIsToldToReload() {
+        ProductChangeFeed feed = feed(Duration.ZERO);
+        createProduct("Purged item");
+        feed.purge();
+        createProduct("Retained item");
+        feed.relay();
+
+        RecordingListener listener = new RecordingListener();
+        feed.subscribe(0L, listener);
+
+        assertThat(listener.resets).containsExactly(productChangeRepository.findMaxId());
+        assertThat(listener.changes).isEmpty();
+    }
+
+    @Test
+    void lateCommitsAreSentWithoutHoldingBackLaterChanges() throws Exception {
+        ProductDTO slow = createProduct("Slow writer item");
+        ProductDTO fast = createProduct("Fast writer item");
+        ProductChangeFeed feed = feed(Duration.ofDays(1));
+        RecordingListener listener = new RecordingListener();
+        feed.subscribe(null, listener);
+
+        // Takes the lower outbox id but commits last
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(s -> {
+            productChangeRepository.insertSnapshots(List.of(slow.getId()), ProductChangeType.UPDATED);
+            inserted.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(inserted.await(5, TimeUnit.SECONDS)).isTrue();
+        try {
+            rename(fast.getId(), "Fast writer item renamed");
+            feed.relay();
+            assertThat(listener.changesOf(fast.getId())).hasSize(1);
+            assertThat(listener.changesOf(slow.getId())).isEmpty();
+            assertThat(feed.pendingGapCount()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            writer.get(10, TimeUnit.SECONDS);
+        }
+
+        feed.relay();
+        assertThat(listener.changesOf(slow.getId())).hasSize(1);
+        assertThat(listener.positions).isSorted();
+        assertThat(feed.pendingGapCount()).isZero();
+    }
+
+    @Test
+    void clientThatDisconnectsWhileAnIdIsPendingGetsItOnResume() throws Exception {
+        ProductDTO slow = createProduct("Slow resume item");
+        ProductDTO fast = createProduct("Fast resume item");
+        ProductChangeFeed feed = feed(Duration.ofDays(1));
+        RecordingListener first = new RecordingListener();
+        ProductChangeFeed.Subscription subscription = feed.subscribe(null, first);
+
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(s -> {
+            productChangeRepository.insertSnapshots(List.of(slow.getId()), ProductChangeType.UPDATED);
+            inserted.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(inserted.await(5, TimeUnit.SECONDS)).isTrue();
+        try {
+            rename(fast.getId(), "Fast resume item renamed");
+            feed.relay();
+            assertThat(first.changesOf(fast.getId())).hasSize(1);
+            subscription.close();
+        } finally {
+            release.countDown();
+            writer.get(10, TimeUnit.SECONDS);
+        }
+        feed.relay();
+
+        long lastPosition = first.positions.getLast();
+        assertThat(lastPosition).isLessThan(first.changesOf(fast.getId()).getFirst().getId());
+        RecordingListener resumed = new RecordingListener();
+        feed.subscribe(lastPosition, resumed);
+
+        assertThat(resumed.changesOf(slow.getId())).singleElement()
+                .extracting(ProductChangeEvent::getChangeType).isEqualTo(ProductChangeType.UPDATED);
+        assertThat(resumed.resets).isEmpty();
+    }
+
+    @Test
+    void rolledBackIdsAreForgottenAfterTheGapTimeout() throws Exception {
+        ProductDTO rolledBack = createProduct("Rolled back item");
+        ProductDTO committed = createProduct("Committed item");
+        ProductChangeFeed feed = feed(Duration.ofDays(1), Duration.ofMillis(100), 100, Runnable::run);
+        RecordingListener listener = new RecordingListener();
+        feed.subscribe(null, listener);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            productChangeRepository.insertSnapshots(List.of(rolledBack.getId()), ProductChangeType.UPDATED);
+            status.setRollbackOnly();
+        });
+        rename(committed.getId(), "Committed item renamed");
+        feed.relay();
+        assertThat(listener.changesOf(committed.getId())).hasSize(1);
+        assertThat(feed.pendingGapCount()).isEqualTo(1);
+
+        Thread.sleep(150);
+        feed.relay();
+        assertThat(feed.pendingGapCount()).isZero();
+        assertThat(listener.changesOf(rolledBack.getId())).isEmpty();
+    }
+
+    @Test
+    void subscriberThatStopsReadingIsDropped() {
+        List<Runnable> stalled = new ArrayList<>();
+        ProductChangeFeed feed = feed(Duration.ofDays(1), Duration.ofSeconds(5), 1, stalled::add);
+        RecordingListener listener = new RecordingListener();
+        feed.subscribe(null, listener);
+
+        ProductDTO product = createProduct("Backlogged item");
+        feed.relay();
+        rename(product.getId(), "Backlogged item renamed");
+        feed.relay();
+
+        assertThat(feed.subscriberCount()).isZero();
+        stalled.forEach(Runnable::run);
+        assertThat(listener.dropped).isTrue();
+        assertThat(listener.changes).isEmpty();
+    }
+
+    @Test
+    void changesAreStreamedAsServerSentEvents() throws Exception {
+        long before = productChangeRepository.findMaxId();
+        ProductDTO product = createProduct("Streamed item");
+        // Replay stops at the relay's watermark; anything newer goes out with the next relay
+        productChangeFeed.relay();
+
+        mockMvc.perform(get("/api/products/changes").header("Last-Event-ID", before))
+                .andExpect(request().asyncStarted())
+                .andExpect(content().string(containsString("event:product-change")))
+                .andExpect(content().string(containsString(
+                        "\"productId\":" + product.getId())));
+    }
+
+    private ProductChangeFeed feed(Duration retention) {
+        return feed(retention, Duration.ofSeconds(5), 100, Runnable::run);
+    }
+
+    /** A feed whose deliveries run on {@code executor}; {@code Runnable::run} sends them during the relay. */
+    private ProductChangeFeed feed(Duration retention, Duration gapTimeout, int queueSize, Executor executor) {
+        return new ProductChangeFeed(productChangeRepository, 1_000, 2, gapTimeout,
+                Duration.ofSeconds(15), retention, queueSize, 10_000, executor);
+    }
+
+    private ProductDTO createProduct(String name) {
+        return productService.createProduct(new CreateProductRequest(name, new BigDecimal("8.00"), 10, "Feed"));
+    }
+
+    private void rename(Long id, String name) {
+        UpdateProductRequest request = new UpdateProductRequest();
+        request.setName(name);
+        productService.updateProduct(id, request);
+    }
+
+    private static final class RecordingListener implements ProductChangeFeed.Listener {
+
+        private final List<ProductChangeEvent> changes = Collections.synchronizedList(new ArrayList<>());
+        private final List<Long> positions = Collections.synchronizedList(new ArrayList<>());
+        private final List<Long> resets = Collections.synchronizedList(new ArrayList<>());
+        private volatile boolean dropped;
+
+        @Override
+        public void onChange(ProductChangeEvent change, long resumeFrom) {
+            changes.add(change);
+            positions.add(resumeFrom);
+        }
+
+        @Override
+        public void onReset(long resumeFrom) {
+            resets.add(resumeFrom);
+        }
+
+        @Override
+        public void onHeartbeat() {
+        }
+
+        @Override
+        public void onDropped() {
+            dropped = true;
+        }
+
+        List<ProductChangeEvent> changesOf(Long productId) {
+            return changes.stream().filter(c -> c.getProductId().equals(productId)).toList();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.PageResponse;
+import com.example.EcOMS.dto.ProductDTO;
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.exceptionnn.InvalidOrderOperationException;
+import com.example.EcOMS.metrics.SqlRecording;
+import com.example.EcOMS.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static com.example.EcOMS.support.TestFixtures.saveProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ProductCursorPaginationTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void walksEveryRowOnceInSortOrderWithTies() {
+        String category = "Cursor-" + UUID.randomUUID();
+        List<Product> saved = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            // Only five distinct prices so the id tie-breaker matters
+            saved.add(saveProduct(productRepository, "Cursor item " + i, String.valueOf(10 + i % 5), 1, category));
+        }
+        productService.rebuildSearchIndex();
+
+        List<Long> seen = new ArrayList<>();
+        String after = "";
+        PageResponse<ProductDTO> page;
+        do {
+            page = productService.searchProductsAfter(null, category, after, 5, "price", "desc", false);
+            page.getContent().forEach(p -> seen.add(p.getId()));
+            after = page.getNextCursor();
+        } while (!page.isLast());
+
+        List<Long> expected = saved.stream()
+                .sorted(Comparator.comparing(Product::getPrice).reversed()
+                        .thenComparing(Product::getId, Comparator.reverseOrder()))
+                .map(Product::getId)
+                .toList();
+        assertThat(seen).containsExactlyElementsOf(expected);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void totalCountIsOnlyQueriedWhenRequested() {
+        String category = "Cursor-" + UUID.randomUUID();
+        for (int i = 0; i < 3; i++) {
+            saveProduct(productRepository, "Counted item " + i, "10", 1, category);
+        }
+        productService.rebuildSearchIndex();
+
+        SqlRecording sql = SqlRecording.start();
+        PageResponse<ProductDTO> withoutTotal =
+                productService.searchProductsAfter(null, category, "", 2, "id", "asc", false);
+        sql.close();
+        assertThat(sql.count("select count", "products")).isZero();
+        assertThat(withoutTotal.getTotalElements()).isNull();
+
+        PageResponse<ProductDTO> withTotal =
+                productService.searchProductsAfter(null, category, "", 2, "id", "asc", true);
+        assertThat(withTotal.getTotalElements()).isEqualTo(3);
+        assertThat(withTotal.getTotalPages()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsCursorFromADifferentSort() {
+        String category = "Cursor-" + UUID.randomUUID();
+        for (int i = 0; i < 3; i++) {
+            saveProduct(productRepository, "Sorted item " + i, "1", 1, category);
+        }
+        productService.rebuildSearchIndex();
+        String cursor = productService.searchProductsAfter(null, category, "", 1, "name", "asc", false)
+                .getNextCursor();
+
+        assertThatThrownBy(() -> productService.searchProductsAfter(null, category, cursor, 1, "price", "asc", false))
+                .isInstanceOf(InvalidOrderOperationException.class);
+    }
+
+    @Test
+    void deepPagesSeekFromTheCursorPosition() {
+        for (int i = 0; i < 4; i++) {
+            saveProduct(productRepository, "Seek item " + i, "7", 1, "Test");
+        }
+        String cursor = productService.getProductsAfter("", 2, "price", "asc", false).getNextCursor();
+
+        SqlRecording sql = SqlRecording.start();
+        productService.getProductsAfter(cursor, 2, "price", "asc", false);
+        sql.close();
+
+        // The leading bound is what lets the (price, id) index start at the cursor
+        assertThat(sql.statements()).singleElement().satisfies(statement -> {
+            assertThat(statement).contains("price>=?").doesNotContain("offset");
+        });
+    }
+
+    @Test
+    void termSearchesPageThroughTheSearchIndex() {
+        String term = "Indexed-" + UUID.randomUUID();
+        List<Product> saved = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            saved.add(saveProduct(productRepository, term + " " + (char) ('g' - i), "3", 1, "Test"));
+        }
+        productService.rebuildSearchIndex();
+
+        List<Long> seen = new ArrayList<>();
+        String after = "";
+        PageResponse<ProductDTO> page;
+        SqlRecording sql = SqlRecording.start();
+        do {
+            page = productService.searchProductsAfter(term.toLowerCase(), null, after, 3, "name", "asc", true);
+            page.getContent().forEach(p -> seen.add(p.getId()));
+            after = page.getNextCursor();
+        } while (!page.isLast());
+        sql.close();
+
+        assertThat(seen).containsExactlyElementsOf(saved.reversed().stream().map(Product::getId).toList());
+        assertThat(page.getTotalElements()).isEqualTo(7);
+        assertThat(sql.statements()).noneMatch(statement -> statement.contains(" like "));
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.ProductImportError;
+import com.example.EcOMS.dto.ProductImportResponse;
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.enums.ProductImportFormat;
+import com.example.EcOMS.repository.ProductBatchRepository;
+import com.example.EcOMS.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.example.EcOMS.support.TestFixtures.saveProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "ecoms.product-import.batch-size=2")
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductBatchRepository productBatchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void csvImportInsertsUpdatesAndReportsBadRows() {
+        Product existing = saveCachedProduct("Import existing");
+        String category = "Import " + UUID.randomUUID();
+        String csv = """
+                id,name,price,stock,category,isActive
+                ,"Imported, quoted",4.50,10,%1$s,
+                %2$d,Import renamed,7.25,3,%1$s,false
+                ,X,1.00,1,%1$s,
+                ,Bad price,abc,1,%1$s,
+                999999999,Missing product,1.00,1,%1$s,
+                ,Imported plain,2.00,0,%1$s,true
+                """.formatted(category, existing.getId());
+
+        ProductImportResponse response = productImportService.importProducts(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ProductImportFormat.CSV);
+
+        assertThat(response.getRows()).isEqualTo(6);
+        assertThat(response.getInserted()).isEqualTo(2);
+        assertThat(response.getUpdated()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(3);
+        assertThat(response.getErrors()).extracting(ProductImportError::getLine).containsExactly(4L, 5L, 6L);
+        assertThat(response.getErrors().get(0).getError()).contains("between 2 and 255 characters");
+        assertThat(response.getErrors().get(2).getError()).contains("Product not found");
+
+        Product updated = productRepository.findById(existing.getId()).orElseThrow();
+        assertThat(updated.getName()).isEqualTo("Import renamed");
+        assertThat(updated.getPrice()).isEqualByComparingTo("7.25");
+        assertThat(updated.getIsActive()).isFalse();
+        assertThat(productService.getProductById(existing.getId()).getName()).isEqualTo("Import renamed");
+        assertThat(productService.searchProducts("imported, quoted", category, 0, 10, "id", "asc").getContent())
+                .singleElement().satisfies(p -> assertThat(p.getStock()).isEqualTo(10));
+    }
+
+    @Test
+    void ndjsonImportReportsMalformedLines() {
+        String category = "Import " + UUID.randomUUID();
+        String ndjson = """
+                {"name":"Json product","price":3.10,"stock":5,"category":"%1$s"}
+                {"name":"Broken",
+                {"name":"Negative","price":3.10,"stock":-1,"category":"%1$s"}
+                """.formatted(category);
+
+        ProductImportResponse response = productImportService.importProducts(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), ProductImportFormat.NDJSON);
+
+        assertThat(response.getInserted()).isEqualTo(1);
+        assertThat(response.getErrors()).extracting(ProductImportError::getLine).containsExactly(2L, 3L);
+        assertThat(response.getErrors().get(1).getError()).contains("Stock cannot be negative");
+    }
+
+    @Test
+    void versionedRowsDoNotOverwriteConcurrentStockChanges() {
+        Product reserved = saveProduct(productRepository, "Import reserved", "5.00", 10, "Test");
+        Product untouched = saveProduct(productRepository, "Import untouched", "5.00", 10, "Test");
+        long exportedVersion = reserved.getVersion();
+        // A reservation that lands between the export and the import
+        productBatchRepository.addStock(Map.of(reserved.getId(), -3));
+
+        String csv = """
+                id,version,name,price,stock,category
+                %d,%d,Import reserved,5.00,20,Test
+                %d,%d,Import untouched,5.00,20,Test
+                """.formatted(reserved.getId(), exportedVersion, untouched.getId(), untouched.getVersion());
+
+        ProductImportResponse response = productImportService.importProducts(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ProductImportFormat.CSV);
+
+        assertThat(response.getUpdated()).isEqualTo(1);
+        assertThat(response.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getLine()).isEqualTo(2L);
+            assertThat(error.getError()).contains("modified concurrently");
+        });
+        assertThat(productRepository.findById(reserved.getId()).orElseThrow().getStock()).isEqualTo(7);
+        assertThat(productRepository.findById(untouched.getId()).orElseThrow().getStock()).isEqualTo(20);
+    }
+
+    @Test
+    void updatesListedOutOfIdOrderAreMatchedToTheirRows() {
+        Product first = saveProduct(productRepository, "Import first", "5.00", 10, "Test");
+        Product second = saveProduct(productRepository, "Import second", "5.00", 10, "Test");
+        long staleVersion = first.getVersion();
+        productBatchRepository.addStock(Map.of(first.getId(), -1));
+
+        String csv = """
+                id,version,name,price,stock,category
+                %d,%d,Import second,5.00,30,Test
+                %d,%d,Import first,5.00,30,Test
+                """.formatted(second.getId(), second.getVersion(), first.getId(), staleVersion);
+
+        ProductImportResponse response = productImportService.importProducts(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ProductImportFormat.CSV);
+
+        assertThat(response.getUpdated()).isEqualTo(1);
+        assertThat(response.getErrors()).singleElement()
+                .satisfies(error -> assertThat(error.getLine()).isEqualTo(3L));
+        assertThat(productRepository.findById(first.getId()).orElseThrow().getStock()).isEqualTo(9);
+        assertThat(productRepository.findById(second.getId()).orElseThrow().getStock()).isEqualTo(30);
+    }
+
+    @Test
+    void aRowTheDatabaseRejectsFailsAloneInItsBatch() {
+        String category = "Import " + UUID.randomUUID();
+        jdbcTemplate.execute("ALTER TABLE products ADD CONSTRAINT import_test_rejects CHECK (name <> 'Rejected row')");
+        try {
+            String csv = """
+                    name,price,stock,category
+                    Accepted first,1.00,1,%1$s
+                    Rejected row,1.00,1,%1$s
+                    Accepted second,1.00,1,%1$s
+                    """.formatted(category);
+
+            ProductImportResponse response = productImportService.importProducts(
+                    new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ProductImportFormat.CSV);
+
+            assertThat(response.getInserted()).isEqualTo(2);
+            assertThat(response.getErrors()).singleElement().satisfies(error -> {
+                assertThat(error.getLine()).isEqualTo(3L);
+                assertThat(error.getError()).contains("IMPORT_TEST_REJECTS");
+            });
+            assertThat(productRepository.searchProducts(null, category, PageRequest.of(0, 10)).getContent())
+                    .extracting(Product::getName)
+                    .containsExactlyInAnyOrder("Accepted first", "Accepted second");
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE products DROP CONSTRAINT import_test_rejects");
+        }
+    }
+
+    /** Saves a product and reads it once through the service, so it sits in the cache. */
+    private Product saveCachedProduct(String name) {
+        Product saved = saveProduct(productRepository, name, "5.00", 1, "Test");
+        productService.getProductById(saved.getId());
+        return saved;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.EcOMS.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Search latency at catalog scale. Run with {@code mvn test -Dbenchmarks=true
+ * -Dtest=ProductSearchIndexBenchmarkTest}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ProductSearchIndexBenchmarkTest {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final String[] BRANDS = {"Acme", "Globex", "Initech", "Umbrella", "Hooli", "Stark", "Wayne"};
+    private static final String[] NOUNS = {"Phone", "Laptop", "Charger", "Headphones", "Monitor", "Keyboard",
+            "Mouse", "Camera", "Speaker", "Router", "Tablet", "Watch"};
+    private static final String[] CATEGORIES = {"Electronics", "Computers", "Audio", "Photo", "Wearables"};
+    // A full scan of a million rows takes far longer; the index must stay well under it
+    private static final double MAX_MILLIS_PER_SEARCH = 50;
+
+    @Test
+    void searchLatencyAtOneMillionProducts() {
+        Random random = new Random(7);
+        List<ProductSearchIndex.Entry> entries = new ArrayList<>(PRODUCTS);
+        LocalDateTime now = LocalDateTime.now();
+        for (long id = 1; id <= PRODUCTS; id++) {
+            String name = BRANDS[random.nextInt(BRANDS.length)] + " " + NOUNS[random.nextInt(NOUNS.length)]
+                    + " X" + random.nextInt(10_000);
+            entries.add(new ProductSearchIndex.Entry(id, name, CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    BigDecimal.valueOf(random.nextInt(100_000), 2), now));
+        }
+
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.replaceAll(entries);
+        assertThat(index.size()).isEqualTo(PRODUCTS);
+
+        String[][] queries = {
+                {"x1234", null}, {"stark router", null}, {"phone", "electro"}, {"initech", "audio"}, {"watch", null}
+        };
+        for (String[] query : queries) {
+            for (int i = 0; i < 5; i++) {
+                index.search(query[0], query[1], "price", true, 20);
+            }
+            int runs = 20;
+            long start = System.nanoTime();
+            int hits = 0;
+            for (int i = 0; i < runs; i++) {
+                hits = index.search(query[0], query[1], "price", true, 20).total();
+            }
+            double millisPerSearch = (System.nanoTime() - start) / 1e6 / runs;
+
+            assertThat(hits).as("hits for %s/%s", query[0], query[1]).isEqualTo(scan(entries, query[0], query[1]));
+            assertThat(millisPerSearch).as("ms per search for %s/%s", query[0], query[1])
+                    .isLessThan(MAX_MILLIS_PER_SEARCH);
+        }
+    }
+
+    private static long scan(List<ProductSearchIndex.Entry> entries, String name, String category) {
+        String categoryTerm = category == null ? null : category.toLowerCase(Locale.ROOT);
+        return entries.stream()
+                .filter(entry -> entry.nameLower().contains(name.toLowerCase(Locale.ROOT)))
+                .filter(entry -> categoryTerm == null || entry.categoryLower().contains(categoryTerm))
+                .count();
+    }
+}
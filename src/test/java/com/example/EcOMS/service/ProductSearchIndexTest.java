@@ -0,0 +1,82 @@
+package com.example.EcOMS.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private static final String[] WORDS = {"Phone", "Case", "USB-C", "Cable", "Laptop", "Stand", "Çay", "Kit"};
+    private static final String[] CATEGORIES = {"Electronics", "Accessories", "Home", null};
+
+    @Test
+    void matchesLikeSemanticsForRandomTerms() {
+        Random random = new Random(42);
+        List<ProductSearchIndex.Entry> entries = new ArrayList<>();
+        for (long id = 1; id <= 2_000; id++) {
+            entries.add(new ProductSearchIndex.Entry(id,
+                    WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + id,
+                    CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    BigDecimal.valueOf(random.nextInt(100)), LocalDateTime.now()));
+        }
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.replaceAll(entries);
+
+        for (String name : new String[]{null, "ph", "phone", "CASE 1", "usb-c cable", "çay", "zzz", "7"}) {
+            for (String category : new String[]{null, "ess", "HOME", "nope"}) {
+                assertThat(index.search(name, category, "price", true, Integer.MAX_VALUE).ids())
+                        .as("name=%s category=%s", name, category)
+                        .containsExactlyElementsOf(bruteForce(entries, name, category));
+                List<Long> expected = bruteForce(entries, name, category);
+                ProductSearchIndex.Result firstPage = index.search(name, category, "price", false, 5);
+                assertThat(firstPage.total()).isEqualTo(expected.size());
+                assertThat(firstPage.ids()).containsExactlyElementsOf(
+                        expected.reversed().subList(0, Math.min(5, expected.size())));
+            }
+        }
+    }
+
+    @Test
+    void updatesReplaceThePreviousEntry() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.upsert(1L, "Red Mug", "Kitchen", BigDecimal.ONE, null);
+        index.upsert(1L, "Blue Mug", "Kitchen", BigDecimal.ONE, null);
+
+        assertThat(index.search("red", null, "id", true, 10).ids()).isEmpty();
+        assertThat(index.search("blue", null, "id", true, 10).ids()).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void compactsAfterManyUpdates() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        for (int round = 0; round < 30; round++) {
+            for (long id = 1; id <= 1_000; id++) {
+                index.upsert(id, "Item " + round + " " + id, "Bulk", BigDecimal.ONE, null);
+            }
+        }
+
+        assertThat(index.size()).isEqualTo(1_000);
+        assertThat(index.search("item 29 ", null, "id", true, 10).total()).isEqualTo(1_000);
+        assertThat(index.search("item 28 ", null, "id", true, 10).total()).isZero();
+    }
+
+    private static List<Long> bruteForce(List<ProductSearchIndex.Entry> entries, String name, String category) {
+        return entries.stream()
+                .filter(e -> name == null || e.name().toLowerCase(Locale.ROOT).contains(name.toLowerCase(Locale.ROOT)))
+                .filter(e -> category == null || (e.categoryLower() != null
+                        && e.categoryLower().contains(category.toLowerCase(Locale.ROOT))))
+                .sorted(Comparator.comparing(ProductSearchIndex.Entry::price)
+                        .thenComparing(ProductSearchIndex.Entry::id))
+                .map(ProductSearchIndex.Entry::id)
+                .toList();
+    }
+}
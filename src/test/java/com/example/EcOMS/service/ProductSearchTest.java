@@ -0,0 +1,91 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.CreateProductRequest;
+import com.example.EcOMS.dto.PageResponse;
+import com.example.EcOMS.dto.ProductDTO;
+import com.example.EcOMS.dto.UpdateProductRequest;
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.metrics.SqlRecording;
+import com.example.EcOMS.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProductSearchTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void indexedSearchReturnsTheSameRowsAsTheDatabaseQuery() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < 12; i++) {
+            productService.createProduct(new CreateProductRequest(
+                    (i % 2 == 0 ? "Wireless Mouse " : "Gaming Keyboard ") + tag + " " + i,
+                    new BigDecimal(5 + i % 4), 1, i % 3 == 0 ? "Peripherals" : "Gaming"));
+        }
+        assertThat(productSearchIndex.isReady()).isTrue();
+
+        SqlRecording sql = SqlRecording.start();
+        PageResponse<ProductDTO> indexed = productService.searchProducts(
+                "mouse " + tag, "PERIPH", 0, 3, "price", "desc");
+        sql.close();
+        assertThat(sql.count("select", "like")).isZero();
+
+        var fromDatabase = productRepository.searchProducts("mouse " + tag, "PERIPH",
+                PageRequest.of(0, 3, Sort.by(Sort.Order.desc("price"), Sort.Order.desc("id"))));
+
+        assertThat(indexed.getContent()).extracting(ProductDTO::getId)
+                .containsExactlyElementsOf(fromDatabase.map(Product::getId).toList());
+        assertThat(indexed.getTotalElements()).isEqualTo(fromDatabase.getTotalElements());
+        assertThat(indexed.getTotalPages()).isEqualTo(fromDatabase.getTotalPages());
+        assertThat(indexed.isLast()).isEqualTo(fromDatabase.isLast());
+    }
+
+    @Test
+    void indexedNamesSortLikeTheDatabaseCollation() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        for (String name : new String[]{"banana", "Éclair", "apple", "Zebra", "eclair", "Ångström", "Apple",
+                "zucchini", "Banana", "avocado"}) {
+            productService.createProduct(new CreateProductRequest(name + " " + tag, BigDecimal.ONE, 1, "Food"));
+        }
+
+        PageResponse<ProductDTO> indexed = productService.searchProducts(tag, null, 0, 20, "name", "asc");
+        var fromDatabase = productRepository.searchProducts(tag, null,
+                PageRequest.of(0, 20, Sort.by(Sort.Order.asc("name"), Sort.Order.asc("id"))));
+
+        assertThat(indexed.getContent()).extracting(ProductDTO::getName)
+                .hasSize(10)
+                .containsExactlyElementsOf(fromDatabase.map(Product::getName).toList());
+    }
+
+    @Test
+    void renamedProductsAreFoundByTheirNewName() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        ProductDTO created = productService.createProduct(
+                new CreateProductRequest("Desk Lamp " + tag, BigDecimal.TEN, 1, "Home"));
+
+        UpdateProductRequest update = new UpdateProductRequest();
+        update.setName("Floor Lamp " + tag);
+        productService.updateProduct(created.getId(), update);
+
+        assertThat(productService.searchProducts("desk lamp " + tag, null, 0, 10, "id", "asc").getContent())
+                .isEmpty();
+        assertThat(productService.searchProducts("floor lamp " + tag, null, 0, 10, "id", "asc").getContent())
+                .extracting(ProductDTO::getId).containsExactly(created.getId());
+    }
+}
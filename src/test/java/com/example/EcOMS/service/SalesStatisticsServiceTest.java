@@ -0,0 +1,150 @@
+package com.example.EcOMS.service;
+
+import com.example.EcOMS.dto.BulkStatusUpdateRequest;
+import com.example.EcOMS.dto.OrderDTO;
+import com.example.EcOMS.dto.OrderItemRequest;
+import com.example.EcOMS.dto.SalesStatisticsDTO;
+import com.example.EcOMS.dto.UpdateOrderStatusRequest;
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.enums.OrderStatus;
+import com.example.EcOMS.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.example.EcOMS.support.TestFixtures.orderFor;
+import static com.example.EcOMS.support.TestFixtures.saveProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class SalesStatisticsServiceTest {
+
+    private static final String EMAIL = "stats@example.com";
+
+    @Autowired
+    private SalesStatisticsService salesStatisticsService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderBatchService orderBatchService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void incrementalStatisticsMatchARebuild() {
+        String category = "Stats " + UUID.randomUUID();
+        Product cheap = saveProduct(productRepository, "Stats cheap", "3.00", 100, category);
+        Product dear = saveProduct(productRepository, "Stats dear", "10.00", 100, category);
+        Product other = saveProduct(productRepository, "Stats other", "1.00", 100, "Other " + category);
+
+        OrderDTO confirmed = orderService.createOrder(orderFor(EMAIL, item(cheap, 2), item(dear, 1), item(other, 4)));
+        OrderDTO cancelled = orderService.createOrder(orderFor(EMAIL, item(dear, 3)));
+        OrderDTO deleted = orderService.createOrder(orderFor(EMAIL, item(cheap, 5)));
+        orderService.createOrder(orderFor(EMAIL, item(cheap, 1)));
+        OrderDTO bulkCancelled = orderService.createOrder(orderFor(EMAIL, item(cheap, 1), item(other, 2)));
+
+        orderService.updateOrderStatus(confirmed.getId(), new UpdateOrderStatusRequest(OrderStatus.CONFIRMED));
+        orderService.updateOrderStatus(cancelled.getId(), new UpdateOrderStatusRequest(OrderStatus.CANCELLED));
+        orderService.deleteOrder(deleted.getId());
+        orderBatchService.updateStatuses(new BulkStatusUpdateRequest(OrderStatus.CANCELLED,
+                List.of(bulkCancelled.getId()), null, null));
+
+        List<SalesStatisticsDTO> pending = statistics(category, null);
+        salesStatisticsService.flush();
+        List<SalesStatisticsDTO> flushed = statistics(category, null);
+        salesStatisticsService.rebuild();
+        List<SalesStatisticsDTO> rebuilt = statistics(category, null);
+
+        assertThat(rebuilt).singleElement().satisfies(row -> {
+            assertThat(row.getOrderCount()).isEqualTo(2);
+            assertThat(row.getUnits()).isEqualTo(4);
+            assertThat(row.getRevenue()).isEqualByComparingTo("19.00");
+        });
+        assertThat(pending).usingRecursiveComparison().withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(rebuilt);
+        assertThat(flushed).usingRecursiveComparison().withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(rebuilt);
+
+        assertThat(statistics(category, EnumSet.of(OrderStatus.CANCELLED))).singleElement()
+                .satisfies(row -> assertThat(row.getRevenue()).isEqualByComparingTo("33.00"));
+    }
+
+    @Test
+    void deltasCommitAndRollBackWithTheOrder() {
+        String category = "Stats " + UUID.randomUUID();
+        Product product = saveProduct(productRepository, "Stats durable", "2.00", 100, category);
+
+        orderService.createOrder(orderFor(EMAIL, item(product, 3)));
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            orderService.createOrder(orderFor(EMAIL, item(product, 1)));
+            throw new IllegalStateException("rolled back");
+        })).isInstanceOf(IllegalStateException.class);
+
+        // Already in the database, folded or not, so a restart here would not lose the sale
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(units) FROM (SELECT units, category FROM " +
+                "sales_bucket_deltas UNION ALL SELECT units, category FROM sales_buckets) b WHERE category = ?",
+                Long.class, category)).isEqualTo(3);
+        assertThat(statistics(category, null)).singleElement()
+                .satisfies(row -> assertThat(row.getRevenue()).isEqualByComparingTo("6.00"));
+
+        salesStatisticsService.flush();
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sales_bucket_deltas WHERE category = ?", Long.class, category)).isZero();
+        assertThat(statistics(category, null)).singleElement()
+                .satisfies(row -> assertThat(row.getRevenue()).isEqualByComparingTo("6.00"));
+    }
+
+    @Test
+    void statusChangesKeepTheSaleOnTheDayItWasPlaced() {
+        String category = "Stats " + UUID.randomUUID();
+        Product product = saveProduct(productRepository, "Stats placed", "4.00", 100, category);
+        OrderDTO confirmed = orderService.createOrder(orderFor(EMAIL, item(product, 1)));
+        OrderDTO cancelled = orderService.createOrder(orderFor(EMAIL, item(product, 2)));
+        LocalDate placed = LocalDate.now().minusDays(3);
+        jdbcTemplate.update("UPDATE orders SET placed_at = ? WHERE id IN (?, ?)",
+                placed.atTime(10, 0), confirmed.getId(), cancelled.getId());
+        salesStatisticsService.rebuild();
+
+        orderService.updateOrderStatus(confirmed.getId(), new UpdateOrderStatusRequest(OrderStatus.CONFIRMED));
+        orderBatchService.updateStatuses(new BulkStatusUpdateRequest(OrderStatus.CANCELLED,
+                List.of(cancelled.getId()), null, null));
+
+        List<SalesStatisticsDTO> byDay = salesStatisticsService.getStatistics(placed, LocalDate.now(),
+                EnumSet.allOf(OrderStatus.class), category);
+        assertThat(byDay).singleElement().satisfies(row -> {
+            assertThat(row.getDay()).isEqualTo(placed);
+            assertThat(row.getOrderCount()).isEqualTo(2);
+        });
+        assertThat(salesStatisticsService.getStatistics(placed, placed, EnumSet.of(OrderStatus.CONFIRMED), category))
+                .singleElement().satisfies(row -> assertThat(row.getRevenue()).isEqualByComparingTo("4.00"));
+    }
+
+    private List<SalesStatisticsDTO> statistics(String category, Set<OrderStatus> statuses) {
+        LocalDate today = LocalDate.now();
+        return salesStatisticsService.getStatistics(today.minusDays(1), today.plusDays(1), statuses, category);
+    }
+
+    private static OrderItemRequest item(Product product, int quantity) {
+        return new OrderItemRequest(product.getId(), quantity);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.EcOMS.support;
+
+import com.example.EcOMS.metrics.SqlBudgetInterceptor;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MockMvc matchers over the statement count that {@link SqlBudgetInterceptor} leaves on the
+ * request, e.g. {@code mockMvc.perform(get("/api/orders/1")).andExpect(withinSqlBudget())}.
+ */
+public final class SqlBudgetMatchers {
+
+    private SqlBudgetMatchers() {
+    }
+
+    /** The request stayed within the budget declared for its handler. */
+    public static ResultMatcher withinSqlBudget() {
+        return result -> {
+            Integer statements = statements(result.getRequest().getAttribute(SqlBudgetInterceptor.STATEMENTS_ATTRIBUTE));
+            Integer budget = (Integer) result.getRequest().getAttribute(SqlBudgetInterceptor.BUDGET_ATTRIBUTE);
+            assertThat(statements)
+                    .as("SQL statements for %s %s", result.getRequest().getMethod(), result.getRequest().getRequestURI())
+                    .isLessThanOrEqualTo(budget);
+        };
+    }
+
+    /** The request issued at most {@code max} statements, regardless of its declared budget. */
+    public static ResultMatcher sqlStatementsAtMost(int max) {
+        return result -> assertThat(statements(result.getRequest().getAttribute(SqlBudgetInterceptor.STATEMENTS_ATTRIBUTE)))
+                .as("SQL statements for %s %s", result.getRequest().getMethod(), result.getRequest().getRequestURI())
+                .isLessThanOrEqualTo(max);
+    }
+
+    private static Integer statements(Object attribute) {
+        assertThat(attribute).as("request was not recorded by SqlBudgetInterceptor").isNotNull();
+        return (Integer) attribute;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.EcOMS.support;
+
+import com.example.EcOMS.dto.CreateOrderRequest;
+import com.example.EcOMS.dto.OrderItemRequest;
+import com.example.EcOMS.entity.Product;
+import com.example.EcOMS.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Products and order requests shared by the integration tests. Order requests carry a
+ * mutable item list so a test can add lines to them.
+ */
+public final class TestFixtures {
+
+    public static final String PHONE = "+998901234567";
+    public static final String ADDRESS = "Tashkent, Amir Temur street 1";
+
+    private TestFixtures() {
+    }
+
+    public static Product saveProduct(ProductRepository repository, String name, int stock) {
+        return saveProduct(repository, name, "12.50", stock, "Test");
+    }
+
+    public static Product saveProduct(ProductRepository repository, String name, String price, int stock,
+                                      String category) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(new BigDecimal(price));
+        product.setStock(stock);
+        product.setCategory(category);
+        product.setIsActive(true);
+        product.setCreatedAt(LocalDateTime.now());
+        return repository.save(product);
+    }
+
+    public static CreateOrderRequest orderFor(String email, Long productId, int quantity) {
+        return orderFor(email, new OrderItemRequest(productId, quantity));
+    }
+
+    public static CreateOrderRequest orderFor(String email, OrderItemRequest... items) {
+        return orderFor(email, List.of(items));
+    }
+
+    public static CreateOrderRequest orderFor(String email, List<OrderItemRequest> items) {
+        return new CreateOrderRequest(email, "Test Buyer", PHONE, ADDRESS, new ArrayList<>(items));
+    }
+}